@@ -0,0 +1,44 @@
+package com.example.studentmanagement.config;
+
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.Set;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import com.example.studentmanagement.controller.VersionedBy;
+import com.example.studentmanagement.service.DataChangedEvent.DataSet;
+import com.example.studentmanagement.service.DataVersions;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+// Answers conditional GETs on @VersionedBy endpoints before the handler runs
+@Component
+public class ConditionalGetInterceptor implements HandlerInterceptor {
+
+    @Autowired
+    private DataVersions dataVersions;
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (!(handler instanceof HandlerMethod method)) {
+            return true;
+        }
+        VersionedBy versionedBy = method.getMethodAnnotation(VersionedBy.class);
+        if (versionedBy == null) {
+            return true;
+        }
+        Set<DataSet> dataSets = EnumSet.copyOf(Arrays.asList(versionedBy.value()));
+
+        // Browsers must revalidate rather than heuristically reuse a response
+        response.setHeader("Cache-Control", "no-cache");
+        // Sets the ETag and Last-Modified headers, and the 304 status when they match
+        return !new ServletWebRequest(request, response).checkNotModified(
+                dataVersions.getETag(dataSets), dataVersions.getLastModified(dataSets));
+    }
+}
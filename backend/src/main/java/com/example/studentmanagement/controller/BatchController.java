@@ -3,8 +3,12 @@ package com.example.studentmanagement.controller;
 import com.example.studentmanagement.model.Batch;
 import com.example.studentmanagement.model.Student;
 import com.example.studentmanagement.repository.BatchRepository;
+import com.example.studentmanagement.repository.StudentListItem;
 import com.example.studentmanagement.repository.StudentRepository;
+import com.example.studentmanagement.service.DataChangedEvent;
+import com.example.studentmanagement.service.DataChangedEvent.DataSet;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.HashSet;
@@ -19,6 +23,8 @@ public class BatchController {
     private BatchRepository batchRepository;
     @Autowired
     private StudentRepository studentRepository;
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
 
     @GetMapping
     public List<Batch> getAllBatches() {
@@ -33,12 +39,16 @@ public class BatchController {
     @PutMapping("/{id}")
     public Batch updateBatch(@PathVariable Long id, @RequestBody Batch batch) {
         batch.setId(id);
-        return batchRepository.save(batch);
+        Batch saved = batchRepository.save(batch);
+        // Students embed their batches
+        eventPublisher.publishEvent(new DataChangedEvent(DataSet.STUDENTS));
+        return saved;
     }
 
     @DeleteMapping("/{id}")
     public void deleteBatch(@PathVariable Long id) {
         batchRepository.deleteById(id);
+        eventPublisher.publishEvent(new DataChangedEvent(DataSet.STUDENTS));
     }
 
     // Assign students to a batch
@@ -49,12 +59,14 @@ public class BatchController {
         Batch batch = batchOpt.get();
         Set<Student> students = new HashSet<>(studentRepository.findAllById(studentIds));
         batch.setStudents(students);
-        return batchRepository.save(batch);
+        Batch saved = batchRepository.save(batch);
+        eventPublisher.publishEvent(new DataChangedEvent(DataSet.STUDENTS));
+        return saved;
     }
 
     // Get students in a batch
     @GetMapping("/{batchId}/students")
-    public Set<Student> getStudentsInBatch(@PathVariable Long batchId) {
-        return batchRepository.findById(batchId).map(Batch::getStudents).orElse(Set.of());
+    public List<StudentListItem> getStudentsInBatch(@PathVariable Long batchId) {
+        return studentRepository.findListItemsByBatchId(batchId);
     }
 } 
\ No newline at end of file
@@ -1,6 +1,7 @@
 package com.example.studentmanagement.controller;
 
 import com.example.studentmanagement.model.Certificate;
+import com.example.studentmanagement.service.DataChangedEvent.DataSet;
 import com.example.studentmanagement.service.CertificateService;
 
 import org.springframework.beans.factory.annotation.Autowired;
@@ -18,12 +19,14 @@ public class CertificateController {
     private CertificateService certificateService;
 
     @GetMapping
+    @VersionedBy({DataSet.CERTIFICATES, DataSet.STUDENTS})
     public ResponseEntity<List<Certificate>> getAllCertificates() {
         List<Certificate> certificates = certificateService.getAllCertificates();
         return ResponseEntity.ok(certificates);
     }
 
     @GetMapping("/{id}")
+    @VersionedBy({DataSet.CERTIFICATES, DataSet.STUDENTS})
     public ResponseEntity<Certificate> getCertificateById(@PathVariable Long id) {
         return certificateService.getCertificateById(id)
                 .map(ResponseEntity::ok)
@@ -61,6 +64,7 @@ public class CertificateController {
     }
 
     @GetMapping("/student/{studentId}")
+    @VersionedBy({DataSet.CERTIFICATES, DataSet.STUDENTS})
     public ResponseEntity<List<Certificate>> getCertificatesByStudentId(@PathVariable Long studentId) {
         List<Certificate> certificates = certificateService.getCertificatesByStudentId(studentId);
         return ResponseEntity.ok(certificates);
@@ -1,11 +1,18 @@
 package com.example.studentmanagement.controller;
 
 import com.example.studentmanagement.service.DashboardService;
+import com.example.studentmanagement.service.DashboardStreamService;
+import com.example.studentmanagement.service.DataChangedEvent.DataSet;
+import com.example.studentmanagement.service.ResponseCache;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.util.Map;
+import java.util.Set;
 
 @RestController
 @RequestMapping("/api/dashboard")
@@ -15,10 +22,18 @@ public class DashboardController {
     @Autowired
     private DashboardService dashboardService;
 
+    @Autowired
+    private DashboardStreamService dashboardStreamService;
+
+    @Autowired
+    private ResponseCache responseCache;
+
     @GetMapping("/kpis")
+    @VersionedBy({DataSet.STUDENTS, DataSet.PAYMENTS, DataSet.ENQUIRIES})
     public ResponseEntity<Map<String, Object>> getDashboardKPIs() {
         try {
-            Map<String, Object> kpis = dashboardService.getDashboardKPIs();
+            Map<String, Object> kpis = responseCache.get("dashboard/kpis", Set.of(DataSet.STUDENTS, DataSet.PAYMENTS, DataSet.ENQUIRIES),
+                    () -> dashboardService.getDashboardKPIs());
             return ResponseEntity.ok(kpis);
         } catch (Exception e) {
             return ResponseEntity.internalServerError().build();
@@ -26,10 +41,12 @@ public class DashboardController {
     }
 
     @GetMapping("/enrollment-trend")
+    @VersionedBy(DataSet.STUDENTS)
     public ResponseEntity<Map<String, Object>> getEnrollmentTrend(
             @RequestParam(defaultValue = "30") int period) {
         try {
-            Map<String, Object> enrollmentData = dashboardService.getEnrollmentTrend(period);
+            Map<String, Object> enrollmentData = responseCache.get("dashboard/enrollment-trend?period=" + period,
+                    Set.of(DataSet.STUDENTS), () -> dashboardService.getEnrollmentTrend(period));
             return ResponseEntity.ok(enrollmentData);
         } catch (Exception e) {
             return ResponseEntity.internalServerError().build();
@@ -37,10 +54,12 @@ public class DashboardController {
     }
 
     @GetMapping("/revenue-overview")
+    @VersionedBy(DataSet.PAYMENTS)
     public ResponseEntity<Map<String, Object>> getRevenueOverview(
             @RequestParam(defaultValue = "monthly") String period) {
         try {
-            Map<String, Object> revenueData = dashboardService.getRevenueOverview(period);
+            Map<String, Object> revenueData = responseCache.get("dashboard/revenue-overview?period=" + period,
+                    Set.of(DataSet.PAYMENTS), () -> dashboardService.getRevenueOverview(period));
             return ResponseEntity.ok(revenueData);
         } catch (Exception e) {
             return ResponseEntity.internalServerError().build();
@@ -48,20 +67,31 @@ public class DashboardController {
     }
 
     @GetMapping("/recent-activity")
+    @VersionedBy({DataSet.STUDENTS, DataSet.PAYMENTS, DataSet.ENQUIRIES})
     public ResponseEntity<Map<String, Object>> getRecentActivity(
-            @RequestParam(defaultValue = "10") int limit) {
+            @RequestParam(defaultValue = "10") int limit,
+            @RequestParam(required = false) String before) {
+        if (limit < 1 || limit > 100) {
+            return ResponseEntity.badRequest().build();
+        }
         try {
-            Map<String, Object> activityData = dashboardService.getRecentActivity(limit);
+            Map<String, Object> activityData = responseCache.get(
+                    "dashboard/recent-activity?limit=" + limit + "&before=" + before,
+                    Set.of(DataSet.STUDENTS, DataSet.PAYMENTS, DataSet.ENQUIRIES), () -> dashboardService.getRecentActivity(limit, before));
             return ResponseEntity.ok(activityData);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
         } catch (Exception e) {
             return ResponseEntity.internalServerError().build();
         }
     }
 
     @GetMapping("/course-distribution")
+    @VersionedBy(DataSet.STUDENTS)
     public ResponseEntity<Map<String, Object>> getCourseDistribution() {
         try {
-            Map<String, Object> courseData = dashboardService.getCourseDistribution();
+            Map<String, Object> courseData = responseCache.get("dashboard/course-distribution",
+                    Set.of(DataSet.STUDENTS), () -> dashboardService.getCourseDistribution());
             return ResponseEntity.ok(courseData);
         } catch (Exception e) {
             return ResponseEntity.internalServerError().build();
@@ -69,12 +99,52 @@ public class DashboardController {
     }
 
     @GetMapping("/payment-methods")
+    @VersionedBy(DataSet.PAYMENTS)
     public ResponseEntity<Map<String, Object>> getPaymentMethodsDistribution() {
         try {
-            Map<String, Object> paymentData = dashboardService.getPaymentMethodsDistribution();
+            Map<String, Object> paymentData = responseCache.get("dashboard/payment-methods",
+                    Set.of(DataSet.PAYMENTS), () -> dashboardService.getPaymentMethodsDistribution());
             return ResponseEntity.ok(paymentData);
         } catch (Exception e) {
             return ResponseEntity.internalServerError().build();
         }
     }
-}
\ No newline at end of file
+
+    // Every dashboard section in one round trip
+    @GetMapping("/summary")
+    @VersionedBy({DataSet.STUDENTS, DataSet.PAYMENTS, DataSet.ENQUIRIES})
+    public ResponseEntity<Map<String, Object>> getDashboardSummary(
+            @RequestParam(defaultValue = "monthly") String enrollmentPeriod,
+            @RequestParam(defaultValue = "monthly") String revenuePeriod,
+            @RequestParam(defaultValue = "10") int activityLimit) {
+        if (!enrollmentPeriod.equals("monthly") && !enrollmentPeriod.matches("\\d{1,3}")
+                || activityLimit < 1 || activityLimit > 100) {
+            return ResponseEntity.badRequest().build();
+        }
+        try {
+            Map<String, Object> summary = responseCache.get("dashboard/summary?enrollmentPeriod=" + enrollmentPeriod
+                    + "&revenuePeriod=" + revenuePeriod + "&activityLimit=" + activityLimit,
+                    Set.of(DataSet.STUDENTS, DataSet.PAYMENTS, DataSet.ENQUIRIES),
+                    () -> dashboardService.getDashboardSummary(enrollmentPeriod, revenuePeriod, activityLimit));
+            return ResponseEntity.ok(summary);
+        } catch (Exception e) {
+            return ResponseEntity.internalServerError().build();
+        }
+    }
+
+    // Hit/miss/eviction counters of the dashboard and report response cache
+    @GetMapping("/cache-stats")
+    public ResponseEntity<Map<String, Object>> getCacheStats() {
+        return ResponseEntity.ok(responseCache.getStats());
+    }
+
+    // Live updates: a full snapshot on connect, then the changed sections after each write
+    @GetMapping(path = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> streamDashboard() {
+        SseEmitter emitter = dashboardStreamService.subscribe();
+        if (emitter == null) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        }
+        return ResponseEntity.ok(emitter);
+    }
+}
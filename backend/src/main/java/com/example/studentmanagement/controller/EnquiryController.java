@@ -17,6 +17,7 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
 import com.example.studentmanagement.model.Enquiry;
+import com.example.studentmanagement.service.DataChangedEvent.DataSet;
 import com.example.studentmanagement.service.EnquiryService;
 import com.example.studentmanagement.model.FeedbackEntry;
 import com.example.studentmanagement.repository.FeedbackRepository;
@@ -35,11 +36,13 @@ public class EnquiryController {
     private FeedbackRepository feedbackRepository;
 
     @GetMapping
+    @VersionedBy(DataSet.ENQUIRIES)
     public List<Enquiry> getAllEnquiries() {
         return enquiryService.getAllEnquiries();
     }
 
     @GetMapping("/{id}")
+    @VersionedBy(DataSet.ENQUIRIES)
     public ResponseEntity<Enquiry> getEnquiryById(@PathVariable Long id) {
         return enquiryService.getEnquiryById(id)
                 .map(ResponseEntity::ok)
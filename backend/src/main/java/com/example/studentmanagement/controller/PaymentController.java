@@ -1,8 +1,11 @@
 package com.example.studentmanagement.controller;
 
 import java.util.List;
+import java.util.Locale;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.CrossOrigin;
 import org.springframework.web.bind.annotation.DeleteMapping;
@@ -15,6 +18,8 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
 import com.example.studentmanagement.model.Payment;
+import com.example.studentmanagement.repository.PaymentListItem;
+import com.example.studentmanagement.service.DataChangedEvent.DataSet;
 import com.example.studentmanagement.service.PaymentService;
 
 @RestController
@@ -26,28 +31,43 @@ public class PaymentController {
     private PaymentService paymentService;
 
     @PostMapping
-    public ResponseEntity<Payment> createPayment(@RequestBody Payment payment) {
-        return ResponseEntity.ok(paymentService.createPayment(payment));
+    public ResponseEntity<?> createPayment(@RequestBody Payment payment) {
+        try {
+            return ResponseEntity.ok(paymentService.createPayment(payment));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(e.getMessage());
+        } catch (DataIntegrityViolationException e) {
+            return receiptConflict(e);
+        }
     }
 
     @GetMapping
-    public ResponseEntity<List<Payment>> getAllPayments() {
-        return ResponseEntity.ok(paymentService.getAllPayments());
+    @VersionedBy({DataSet.PAYMENTS, DataSet.STUDENTS})
+    public ResponseEntity<List<PaymentListItem>> getAllPayments() {
+        return ResponseEntity.ok(paymentService.getPaymentListItems());
     }
 
     @GetMapping("/student/{studentId}")
+    @VersionedBy({DataSet.PAYMENTS, DataSet.STUDENTS})
     public ResponseEntity<List<Payment>> getPaymentsByStudentId(@PathVariable Long studentId) {
         return ResponseEntity.ok(paymentService.getPaymentsByStudentId(studentId));
     }
 
     @GetMapping("/{id}")
+    @VersionedBy({DataSet.PAYMENTS, DataSet.STUDENTS})
     public ResponseEntity<Payment> getPaymentById(@PathVariable Long id) {
         return ResponseEntity.ok(paymentService.getPaymentById(id));
     }
 
     @PutMapping("/{id}")
-    public ResponseEntity<Payment> updatePayment(@PathVariable Long id, @RequestBody Payment payment) {
-        return ResponseEntity.ok(paymentService.updatePayment(id, payment));
+    public ResponseEntity<?> updatePayment(@PathVariable Long id, @RequestBody Payment payment) {
+        try {
+            return ResponseEntity.ok(paymentService.updatePayment(id, payment));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(e.getMessage());
+        } catch (DataIntegrityViolationException e) {
+            return receiptConflict(e);
+        }
     }
 
     @DeleteMapping("/{id}")
@@ -57,7 +77,17 @@ public class PaymentController {
     }
 
     @GetMapping("/ledger/{studentId}")
+    @VersionedBy({DataSet.PAYMENTS, DataSet.STUDENTS})
     public ResponseEntity<List<Payment>> getStudentLedger(@PathVariable Long studentId) {
         return ResponseEntity.ok(paymentService.getStudentLedger(studentId));
     }
-} 
\ No newline at end of file
+
+    // Two saves with the same new receipt number can both pass the service's check; the index stops the second
+    private static ResponseEntity<?> receiptConflict(DataIntegrityViolationException e) {
+        String message = e.getMostSpecificCause().getMessage();
+        if (message == null || !message.toLowerCase(Locale.ROOT).contains("uk_payments_receipt_key")) {
+            throw e;
+        }
+        return ResponseEntity.status(HttpStatus.CONFLICT).body("Receipt number is already in use");
+    }
+}
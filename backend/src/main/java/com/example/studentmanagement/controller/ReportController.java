@@ -1,20 +1,38 @@
 package com.example.studentmanagement.controller;
 
-import com.example.studentmanagement.model.Enquiry;
 import com.example.studentmanagement.model.Payment;
 import com.example.studentmanagement.model.Student;
-import com.example.studentmanagement.repository.EnquiryRepository;
 import com.example.studentmanagement.repository.PaymentRepository;
+import com.example.studentmanagement.repository.ReceiptLookupRow;
 import com.example.studentmanagement.repository.StudentRepository;
+import com.example.studentmanagement.service.DataChangedEvent.DataSet;
+import com.example.studentmanagement.service.AnalyticsService;
+import com.example.studentmanagement.service.DashboardAggregateStore;
+import com.example.studentmanagement.service.DashboardService;
+import com.example.studentmanagement.service.ReportExportService;
+import com.example.studentmanagement.service.ResponseCache;
+import com.example.studentmanagement.service.RevenueIndex;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.OutputStream;
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
 import java.time.YearMonth;
+import java.time.format.DateTimeParseException;
 import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.stream.Collectors;
 
 @RestController
@@ -25,236 +43,366 @@ public class ReportController {
     @Autowired
     private PaymentRepository paymentRepository;
     @Autowired
-    private EnquiryRepository enquiryRepository;
+    private RevenueIndex revenueIndex;
+    @Autowired
+    private ResponseCache responseCache;
+    @Autowired
+    private ReportExportService reportExportService;
+    @Autowired
+    private DashboardAggregateStore aggregateStore;
+    @Autowired
+    private DashboardService dashboardService;
+    @Autowired
+    private AnalyticsService analyticsService;
 
-    // 1. Monthly Student Admissions (by id, fallback: not perfect if no createdAt)
+    // 1. Monthly Student Admissions (the last 12 months unless from/to are given as YYYY-MM)
     @GetMapping("/monthly-student-admissions")
-    public List<Map<String, Object>> getMonthlyStudentAdmissions() {
-        List<Student> students = studentRepository.findAll();
-        Map<YearMonth, Long> monthlyCounts = students.stream()
-                .filter(s -> s.getAdmissionDate() != null)
-                .collect(Collectors.groupingBy(
-                        s -> YearMonth.from(s.getAdmissionDate()),
-                        Collectors.counting()));
-        // Get last 12 months
-        List<YearMonth> last12Months = new ArrayList<>();
-        YearMonth now = YearMonth.now();
-        for (int i = 11; i >= 0; i--) {
-            last12Months.add(now.minusMonths(i));
-        }
-        List<Map<String, Object>> result = new ArrayList<>();
-        for (YearMonth ym : last12Months) {
-            Map<String, Object> row = new HashMap<>();
-            row.put("month", ym.toString());
-            row.put("count", monthlyCounts.getOrDefault(ym, 0L));
-            result.add(row);
-        }
-        return result;
+    @VersionedBy(DataSet.STUDENTS)
+    public ResponseEntity<List<Map<String, Object>>> getMonthlyStudentAdmissions(@RequestParam(required = false) String from,
+            @RequestParam(required = false) String to) {
+        return monthlyRows("admissions", "count", from, to);
     }
 
     // 2. Monthly Payments Collected
     @GetMapping("/monthly-payments")
-    public List<Map<String, Object>> getMonthlyPayments() {
-        List<Payment> payments = paymentRepository.findAll();
-        Map<YearMonth, Double> monthlyTotals = payments.stream()
-                .filter(p -> p.getPaymentDate() != null)
-                .collect(Collectors.groupingBy(
-                        p -> YearMonth.from(p.getPaymentDate().toLocalDate()),
-                        Collectors.summingDouble(Payment::getAmount)));
-        // Get last 12 months
-        List<YearMonth> last12Months = new ArrayList<>();
-        YearMonth now = YearMonth.now();
-        for (int i = 11; i >= 0; i--) {
-            last12Months.add(now.minusMonths(i));
-        }
-        List<Map<String, Object>> result = new ArrayList<>();
-        for (YearMonth ym : last12Months) {
-            Map<String, Object> row = new HashMap<>();
-            row.put("month", ym.toString());
-            row.put("totalPayments", monthlyTotals.getOrDefault(ym, 0.0));
-            result.add(row);
-        }
-        return result;
+    @VersionedBy(DataSet.PAYMENTS)
+    public ResponseEntity<List<Map<String, Object>>> getMonthlyPayments(@RequestParam(required = false) String from,
+            @RequestParam(required = false) String to) {
+        return monthlyRows("revenue", "totalPayments", from, to);
     }
 
     // 3. Pending Fees
     @GetMapping("/pending-fees")
+    @VersionedBy(DataSet.STUDENTS)
     public List<Map<String, Object>> getPendingFees() {
-        List<Student> students = studentRepository.findAll();
-        List<Map<String, Object>> result = new ArrayList<>();
-        for (Student s : students) {
-            if (s.getRemainingAmount() != null && s.getRemainingAmount().compareTo(BigDecimal.ZERO) > 0) {
-                Map<String, Object> row = new HashMap<>();
-                row.put("studentName", s.getName());
-                row.put("course", s.getCourses());
-                row.put("pendingAmount", s.getRemainingAmount());
-                row.put("admissionDate", s.getAdmissionDate());
-                result.add(row);
+        return responseCache.get("reports/pending-fees", Set.of(DataSet.STUDENTS), () -> {
+            List<Student> students = studentRepository.findAll();
+            List<Map<String, Object>> result = new ArrayList<>();
+            for (Student s : students) {
+                if (s.getRemainingAmount() != null && s.getRemainingAmount().compareTo(BigDecimal.ZERO) > 0) {
+                    Map<String, Object> row = new HashMap<>();
+                    row.put("studentName", s.getName());
+                    row.put("course", s.getCourses());
+                    row.put("pendingAmount", s.getRemainingAmount());
+                    row.put("admissionDate", s.getAdmissionDate());
+                    result.add(row);
+                }
             }
-        }
-        return result;
+            return result;
+        });
     }
 
     // 3.1. Pending Fees by Month
     @GetMapping("/pending-fees-by-month")
+    @VersionedBy(DataSet.STUDENTS)
     public List<Map<String, Object>> getPendingFeesByMonth(String month) {
-        if (month == null || month.isEmpty()) {
-            return getPendingFees();
-        }
+        return responseCache.get("reports/pending-fees-by-month?month=" + month, Set.of(DataSet.STUDENTS), () -> {
+            if (month == null || month.isEmpty()) {
+                return getPendingFees();
+            }
 
-        YearMonth yearMonth = YearMonth.parse(month);
-        List<Student> students = studentRepository.findAll();
-        List<Map<String, Object>> result = new ArrayList<>();
+            YearMonth yearMonth = YearMonth.parse(month);
+            List<Student> students = studentRepository.findAll();
+            List<Map<String, Object>> result = new ArrayList<>();
 
-        for (Student s : students) {
-            if (s.getRemainingAmount() != null && s.getRemainingAmount().compareTo(BigDecimal.ZERO) > 0) {
-                // Check if student was admitted in the specified month
-                if (s.getAdmissionDate() != null && YearMonth.from(s.getAdmissionDate()).equals(yearMonth)) {
-                    Map<String, Object> row = new HashMap<>();
-                    row.put("studentName", s.getName());
-                    row.put("course", s.getCourses());
-                    row.put("pendingAmount", s.getRemainingAmount());
-                    row.put("admissionDate", s.getAdmissionDate());
-                    result.add(row);
+            for (Student s : students) {
+                if (s.getRemainingAmount() != null && s.getRemainingAmount().compareTo(BigDecimal.ZERO) > 0) {
+                    // Check if student was admitted in the specified month
+                    if (s.getAdmissionDate() != null && YearMonth.from(s.getAdmissionDate()).equals(yearMonth)) {
+                        Map<String, Object> row = new HashMap<>();
+                        row.put("studentName", s.getName());
+                        row.put("course", s.getCourses());
+                        row.put("pendingAmount", s.getRemainingAmount());
+                        row.put("admissionDate", s.getAdmissionDate());
+                        result.add(row);
+                    }
                 }
             }
-        }
-        return result;
+            return result;
+        });
     }
 
     // 4. Monthly Enquiry Summary
     @GetMapping("/monthly-enquiries")
-    public List<Map<String, Object>> getMonthlyEnquiries() {
-        List<Enquiry> enquiries = enquiryRepository.findAll();
-        Map<YearMonth, Long> monthlyCounts = enquiries.stream()
-                .filter(e -> e.getDateOfEnquiry() != null)
-                .collect(Collectors.groupingBy(
-                        e -> YearMonth.from(e.getDateOfEnquiry()),
-                        Collectors.counting()));
-        // Get last 12 months
-        List<YearMonth> last12Months = new ArrayList<>();
-        YearMonth now = YearMonth.now();
-        for (int i = 11; i >= 0; i--) {
-            last12Months.add(now.minusMonths(i));
-        }
-        List<Map<String, Object>> result = new ArrayList<>();
-        for (YearMonth ym : last12Months) {
-            Map<String, Object> row = new HashMap<>();
-            row.put("month", ym.toString());
-            row.put("totalEnquiries", monthlyCounts.getOrDefault(ym, 0L));
-            result.add(row);
-        }
-        return result;
+    @VersionedBy(DataSet.ENQUIRIES)
+    public ResponseEntity<List<Map<String, Object>>> getMonthlyEnquiries(@RequestParam(required = false) String from,
+            @RequestParam(required = false) String to) {
+        return monthlyRows("enquiries", "totalEnquiries", from, to);
     }
 
     // 5. List students added in a given month with details
     @GetMapping("/students-by-month")
+    @VersionedBy(DataSet.STUDENTS)
     public List<Map<String, Object>> getStudentsByMonth(String month) {
-        // month format: YYYY-MM
-        YearMonth yearMonth = YearMonth.parse(month);
-        List<Student> students = studentRepository.findAll();
-        return students.stream()
-                .filter(s -> s.getAdmissionDate() != null && YearMonth.from(s.getAdmissionDate()).equals(yearMonth))
-                .map(s -> {
-                    Map<String, Object> map = new HashMap<>();
-                    map.put("name", s.getName());
-                    map.put("fatherName", s.getFatherName());
-                    map.put("courses", s.getCourses());
-                    return map;
-                })
-                .collect(Collectors.toList());
+        return responseCache.get("reports/students-by-month?month=" + month, Set.of(DataSet.STUDENTS), () -> {
+            // month format: YYYY-MM
+            YearMonth yearMonth = YearMonth.parse(month);
+            List<Student> students = studentRepository.findAll();
+            return students.stream()
+                    .filter(s -> s.getAdmissionDate() != null && YearMonth.from(s.getAdmissionDate()).equals(yearMonth))
+                    .map(s -> {
+                        Map<String, Object> map = new HashMap<>();
+                        map.put("name", s.getName());
+                        map.put("fatherName", s.getFatherName());
+                        map.put("courses", s.getCourses());
+                        return map;
+                    })
+                    .collect(Collectors.toList());
+        });
     }
 
     // 6. Receipt Lookup - Find student details by receipt number
     @GetMapping("/receipt-lookup")
+    @VersionedBy({DataSet.PAYMENTS, DataSet.STUDENTS})
     public Map<String, Object> lookupReceipt(@RequestParam String receiptNumber) {
-        Map<String, Object> response = new HashMap<>();
+        return responseCache.get("reports/receipt-lookup?receiptNumber=" + receiptNumber, Set.of(DataSet.PAYMENTS, DataSet.STUDENTS), () -> {
+            Map<String, Object> response = new HashMap<>();
 
-        if (receiptNumber == null || receiptNumber.trim().isEmpty()) {
-            response.put("found", false);
-            response.put("error", "Receipt number is required");
-            return response;
-        }
+            if (receiptNumber == null || receiptNumber.trim().isEmpty()) {
+                response.put("found", false);
+                response.put("error", "Receipt number is required");
+                return response;
+            }
 
-        // Find payment by receipt number
-        Optional<Payment> paymentOpt = paymentRepository.findAll().stream()
-                .filter(p -> receiptNumber.trim().equalsIgnoreCase(p.getReceiptNumber()))
-                .findFirst();
+            // Single indexed probe on the normalized receipt number
+            Optional<ReceiptLookupRow> rowOpt = paymentRepository.findReceiptLookupRow(
+                    Payment.normalizeReceiptNumber(receiptNumber));
 
-        if (!paymentOpt.isPresent()) {
-            response.put("found", false);
-            response.put("receiptNumber", receiptNumber.trim());
-            return response;
-        }
+            if (!rowOpt.isPresent()) {
+                response.put("found", false);
+                response.put("receiptNumber", receiptNumber.trim());
+                return response;
+            }
 
-        Payment payment = paymentOpt.get();
-        Student student = payment.getStudent();
+            ReceiptLookupRow row = rowOpt.get();
 
-        if (student == null) {
-            response.put("found", false);
-            response.put("error", "Student information not found for this receipt");
-            return response;
-        }
+            if (row.studentId() == null) {
+                response.put("found", false);
+                response.put("error", "Student information not found for this receipt");
+                return response;
+            }
 
-        // Build receipt details
-        Map<String, Object> receiptDetails = new HashMap<>();
-        receiptDetails.put("receiptNumber", payment.getReceiptNumber());
-        receiptDetails.put("amount", payment.getAmount());
-        receiptDetails.put("paymentDate", payment.getPaymentDate());
-        receiptDetails.put("paymentMethod", payment.getPaymentMethod());
-        receiptDetails.put("description", payment.getDescription());
-        receiptDetails.put("status", payment.getStatus());
-
-        // Build student details
-        Map<String, Object> studentDetails = new HashMap<>();
-        studentDetails.put("id", student.getId());
-        studentDetails.put("name", student.getName());
-        studentDetails.put("fatherName", student.getFatherName());
-        studentDetails.put("contactNumber", student.getPhoneNumber());
-        studentDetails.put("email", student.getEmail());
-        studentDetails.put("courses", student.getCourses());
-        studentDetails.put("admissionDate", student.getAdmissionDate());
-        studentDetails.put("totalCourseFee", student.getTotalCourseFee());
-        studentDetails.put("remainingAmount", student.getRemainingAmount());
-
-        response.put("found", true);
-        response.put("receipt", receiptDetails);
-        response.put("student", studentDetails);
+            // Build receipt details
+            Map<String, Object> receiptDetails = new HashMap<>();
+            receiptDetails.put("receiptNumber", row.receiptNumber());
+            receiptDetails.put("amount", row.amount());
+            receiptDetails.put("paymentDate", row.paymentDate());
+            receiptDetails.put("paymentMethod", row.paymentMethod());
+            receiptDetails.put("description", row.description());
+            receiptDetails.put("status", row.status());
 
-        return response;
+            // Build student details
+            Map<String, Object> studentDetails = new HashMap<>();
+            studentDetails.put("id", row.studentId());
+            studentDetails.put("name", row.studentName());
+            studentDetails.put("fatherName", row.fatherName());
+            studentDetails.put("contactNumber", row.phoneNumber());
+            studentDetails.put("email", row.email());
+            studentDetails.put("courses", row.courses());
+            studentDetails.put("admissionDate", row.admissionDate());
+            studentDetails.put("totalCourseFee", row.totalCourseFee());
+            studentDetails.put("remainingAmount", row.remainingAmount());
+
+            response.put("found", true);
+            response.put("receipt", receiptDetails);
+            response.put("student", studentDetails);
+
+            return response;
+        });
     }
 
     // 7. Total Students Count
     @GetMapping("/total-students")
+    @VersionedBy(DataSet.STUDENTS)
     public Map<String, Object> getTotalStudents() {
-        Map<String, Object> response = new HashMap<>();
-        long total = studentRepository.count();
-        response.put("total", total);
-        return response;
+        return responseCache.get("reports/total-students", Set.of(DataSet.STUDENTS), () -> {
+            Map<String, Object> response = new HashMap<>();
+            long total = studentRepository.count();
+            response.put("total", total);
+            return response;
+        });
     }
 
     // 8. Total Revenue
     @GetMapping("/total-revenue")
+    @VersionedBy(DataSet.PAYMENTS)
     public Map<String, Object> getTotalRevenue() {
+        // Running total kept by the revenue index; payments without an amount count as nothing
         Map<String, Object> response = new HashMap<>();
-        List<Payment> payments = paymentRepository.findAll();
-        double total = payments.stream()
-                .mapToDouble(Payment::getAmount)
-                .sum();
-        response.put("total", total);
+        response.put("total", revenueIndex.getTotalRevenue());
         return response;
     }
 
     // 9. Total Pending Amount
     @GetMapping("/total-pending")
+    @VersionedBy(DataSet.STUDENTS)
     public Map<String, Object> getTotalPending() {
+        // Running SUM(remainingAmount) kept by the aggregate store
         Map<String, Object> response = new HashMap<>();
-        List<Student> students = studentRepository.findAll();
-        double total = students.stream()
-                .filter(s -> s.getRemainingAmount() != null)
-                .mapToDouble(s -> s.getRemainingAmount().doubleValue())
-                .sum();
-        response.put("total", total);
+        response.put("total", aggregateStore.getRemainingTotal().doubleValue());
         return response;
     }
-}
\ No newline at end of file
+
+    // 9.1. Running totals against a full recompute; POST also rebuilds them if they drifted
+    @GetMapping("/totals/check")
+    public Map<String, Object> checkTotals() {
+        return dashboardService.checkTotals(false);
+    }
+
+    @PostMapping("/totals/check")
+    public Map<String, Object> checkAndRebuildTotals() {
+        return dashboardService.checkTotals(true);
+    }
+
+    // 10. Revenue for any date range, bucketed by day, week or month
+    @GetMapping("/revenue")
+    @VersionedBy(DataSet.PAYMENTS)
+    public ResponseEntity<Map<String, Object>> getRevenue(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(defaultValue = "day") String granularity) {
+        if (to.isBefore(from) || !List.of("day", "week", "month").contains(granularity)) {
+            return ResponseEntity.badRequest().build();
+        }
+        try {
+            return ResponseEntity.ok(responseCache.get(
+                    "reports/revenue?from=" + from + "&to=" + to + "&granularity=" + granularity,
+                    Set.of(DataSet.PAYMENTS), () -> revenueIndex.getRevenueSeries(from, to, granularity)));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    // 12. Any metric (admissions, revenue, enquiries, conversions) over any range, by
+    // day, week, month, quarter or year
+    @GetMapping("/analytics")
+    @VersionedBy({DataSet.STUDENTS, DataSet.PAYMENTS, DataSet.ENQUIRIES})
+    public ResponseEntity<Map<String, Object>> getAnalytics(@RequestParam String metric,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(defaultValue = "month") String granularity) {
+        if (!AnalyticsService.METRICS.contains(metric)) {
+            return ResponseEntity.badRequest().build();
+        }
+        try {
+            return ResponseEntity.ok(responseCache.get(
+                    "reports/analytics?metric=" + metric + "&from=" + from + "&to=" + to + "&granularity=" + granularity,
+                    Set.of(AnalyticsService.dataSetOf(metric)),
+                    () -> analyticsService.getSeries(metric, from, to, granularity)));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    // 11. Streaming exports, as CSV or JSON lines, for ranges too large to build in memory
+    @GetMapping("/pending-fees/export")
+    @VersionedBy(DataSet.STUDENTS)
+    public ResponseEntity<StreamingResponseBody> exportPendingFees(@RequestParam(defaultValue = "csv") String format,
+            @RequestParam(required = false) String from, @RequestParam(required = false) String to) {
+        if (!isExportFormat(format) || (from == null && to != null)) {
+            return ResponseEntity.badRequest().build();
+        }
+        YearMonth fromMonth;
+        YearMonth toMonth;
+        try {
+            fromMonth = from == null ? null : YearMonth.parse(from);
+            toMonth = to == null ? fromMonth : YearMonth.parse(to);
+        } catch (DateTimeParseException e) {
+            return ResponseEntity.badRequest().build();
+        }
+        if (fromMonth != null && toMonth.isBefore(fromMonth)) {
+            return ResponseEntity.badRequest().build();
+        }
+        return export("pending-fees", format,
+                out -> reportExportService.exportPendingFees(fromMonth, toMonth, format, out, new AtomicLong()));
+    }
+
+    @GetMapping("/students-by-month/export")
+    @VersionedBy(DataSet.STUDENTS)
+    public ResponseEntity<StreamingResponseBody> exportStudentsByMonth(@RequestParam(defaultValue = "csv") String format,
+            @RequestParam String from, @RequestParam(required = false) String to) {
+        if (!isExportFormat(format)) {
+            return ResponseEntity.badRequest().build();
+        }
+        YearMonth fromMonth;
+        YearMonth toMonth;
+        try {
+            fromMonth = YearMonth.parse(from);
+            toMonth = to == null ? fromMonth : YearMonth.parse(to);
+        } catch (DateTimeParseException e) {
+            return ResponseEntity.badRequest().build();
+        }
+        if (toMonth.isBefore(fromMonth)) {
+            return ResponseEntity.badRequest().build();
+        }
+        return export("students-" + fromMonth + "-" + toMonth, format,
+                out -> reportExportService.exportStudentsByMonth(fromMonth, toMonth, format, out, new AtomicLong()));
+    }
+
+    @GetMapping("/payments/export")
+    @VersionedBy({DataSet.PAYMENTS, DataSet.STUDENTS})
+    public ResponseEntity<StreamingResponseBody> exportPayments(@RequestParam(defaultValue = "csv") String format,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        if (!isExportFormat(format) || to.isBefore(from)) {
+            return ResponseEntity.badRequest().build();
+        }
+        return export("payments-" + from + "-" + to, format,
+                out -> reportExportService.exportPayments(from, to, format, out, new AtomicLong()));
+    }
+
+    private interface ExportBody {
+        long writeTo(OutputStream out) throws IOException;
+    }
+
+    private static boolean isExportFormat(String format) {
+        return format.equals("csv") || format.equals("ndjson");
+    }
+
+    // Rows are written by an async request thread while the client reads them
+    private ResponseEntity<StreamingResponseBody> export(String name, String format, ExportBody body) {
+        String filename = name + (format.equals("csv") ? ".csv" : ".ndjson");
+        StreamingResponseBody stream = out -> {
+            long started = System.currentTimeMillis();
+            long rows = body.writeTo(out);
+            System.out.println("Exported " + rows + " rows to " + filename + " in "
+                    + (System.currentTimeMillis() - started) + " ms");
+        };
+        return ResponseEntity.ok()
+                .contentType(format.equals("csv") ? new MediaType("text", "csv", StandardCharsets.UTF_8)
+                        : MediaType.parseMediaType("application/x-ndjson"))
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + filename + "\"")
+                .body(stream);
+    }
+
+    // The legacy [{month, <valueKey>}] shape over a month range; by default the current month and the 11 before it.
+    // 400 for a month that is not YYYY-MM, from after to, or too long a range.
+    private ResponseEntity<List<Map<String, Object>>> monthlyRows(String metric, String valueKey, String from,
+            String to) {
+        try {
+            YearMonth toMonth = to == null ? YearMonth.now() : YearMonth.parse(to);
+            YearMonth fromMonth = from == null ? toMonth.minusMonths(11) : YearMonth.parse(from);
+            return ResponseEntity.ok(monthlyRows(metric, valueKey, fromMonth, toMonth));
+        } catch (DateTimeParseException | IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    private List<Map<String, Object>> monthlyRows(String metric, String valueKey, YearMonth fromMonth,
+            YearMonth toMonth) {
+        return responseCache.get("reports/monthly?metric=" + metric + "&from=" + fromMonth + "&to=" + toMonth,
+                Set.of(AnalyticsService.dataSetOf(metric)), () -> {
+                    @SuppressWarnings("unchecked")
+                    List<Map<String, Object>> buckets = (List<Map<String, Object>>) analyticsService
+                            .getSeries(metric, fromMonth.atDay(1), toMonth.atEndOfMonth(), "month").get("buckets");
+                    List<Map<String, Object>> result = new ArrayList<>();
+                    for (Map<String, Object> bucket : buckets) {
+                        Map<String, Object> row = new HashMap<>();
+                        row.put("month", bucket.get("key"));
+                        row.put(valueKey, bucket.get("value"));
+                        result.add(row);
+                    }
+                    return result;
+                });
+    }
+}
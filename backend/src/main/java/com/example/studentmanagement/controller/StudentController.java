@@ -1,19 +1,30 @@
 package com.example.studentmanagement.controller;
 
 import com.example.studentmanagement.model.Student;
+import com.example.studentmanagement.service.DataChangedEvent.DataSet;
+import com.example.studentmanagement.service.DocumentCollector;
+import com.example.studentmanagement.service.DocumentIntegrityService;
+import com.example.studentmanagement.service.DocumentSender;
+import com.example.studentmanagement.service.DocumentStorageService;
+import com.example.studentmanagement.service.DocumentStorageService.StoredDocument;
+import com.example.studentmanagement.service.StudentImportService;
 import com.example.studentmanagement.service.StudentService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
 
-import java.io.File;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
 import java.io.IOException;
+import java.io.InputStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.time.format.DateTimeParseException;
 import java.util.List;
-import java.util.UUID;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/api/students")
@@ -23,11 +34,47 @@ public class StudentController {
     @Autowired
     private StudentService studentService;
 
+    @Autowired
+    private StudentImportService studentImportService;
+
+    @Autowired
+    private DocumentStorageService documentStorageService;
+
+    @Autowired
+    private DocumentSender documentSender;
+
+    @Autowired
+    private DocumentCollector documentCollector;
+
+    @Autowired
+    private DocumentIntegrityService documentIntegrityService;
+
     @PostMapping
     public ResponseEntity<Student> createStudent(@RequestBody Student student) {
         return ResponseEntity.ok(studentService.createStudent(student));
     }
 
+    // Bulk import: the request body is CSV (text/csv) or JSON lines (application/x-ndjson)
+    @PostMapping("/import")
+    public ResponseEntity<Map<String, Object>> importStudents(InputStream body,
+            @RequestHeader(value = "Content-Type", required = false) String contentType,
+            @RequestParam(required = false) String format,
+            @RequestParam(defaultValue = "" + StudentImportService.DEFAULT_CHUNK_SIZE) int chunkSize) {
+        if (format == null && contentType != null) {
+            format = contentType.contains("csv") ? "csv" : contentType.contains("json") ? "ndjson" : null;
+        }
+        if (format == null || !(format.equals("csv") || format.equals("ndjson"))
+                || chunkSize < 1 || chunkSize > StudentImportService.MAX_CHUNK_SIZE) {
+            return ResponseEntity.badRequest().build();
+        }
+        try {
+            return ResponseEntity.ok(studentImportService.importStudents(body, format, chunkSize));
+        } catch (IOException | IllegalArgumentException e) {
+            System.out.println("Error importing students: " + e.getMessage());
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
     @PostMapping("/with-document")
     public ResponseEntity<Student> createStudentWithDocument(
             @RequestParam("name") String name,
@@ -67,9 +114,8 @@ public class StudentController {
             // Handle file upload
             if (tenthClassDocument != null && !tenthClassDocument.isEmpty()) {
                 System.out.println("Processing file upload...");
-                String documentPath = saveDocument(tenthClassDocument, "tenth_class");
-                student.setTenthClassDocument(documentPath);
-                System.out.println("Document saved with filename: " + documentPath);
+                StoredDocument document = documentStorageService.store(tenthClassDocument);
+                student.setTenthClassDocument(document.filename());
             } else {
                 System.out.println("No file to upload");
             }
@@ -85,11 +131,33 @@ public class StudentController {
     }
 
     @GetMapping
-    public ResponseEntity<List<Student>> getAllStudents() {
-        return ResponseEntity.ok(studentService.getAllStudents());
+    @VersionedBy(DataSet.STUDENTS)
+    public ResponseEntity<?> getAllStudents(
+            @RequestParam(required = false) Integer page,
+            @RequestParam(required = false) Integer size,
+            @RequestParam(defaultValue = "id") String sort,
+            @RequestParam(defaultValue = "asc") String direction,
+            @RequestParam(required = false) String after) {
+        // Without paging parameters this is still the full list the existing pages expect
+        if (page == null && size == null && after == null) {
+            return ResponseEntity.ok(studentService.getStudentListItems());
+        }
+        int pageSize = size != null ? size : 25;
+        if (pageSize < 1 || pageSize > 500 || (page != null && page < 0)) {
+            return ResponseEntity.badRequest().build();
+        }
+        try {
+            if (after != null) {
+                return ResponseEntity.ok(studentService.getStudentsAfter(pageSize, sort, direction, after));
+            }
+            return ResponseEntity.ok(studentService.getStudentsPage(page != null ? page : 0, pageSize, sort, direction));
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            return ResponseEntity.badRequest().build();
+        }
     }
 
     @GetMapping("/{id}")
+    @VersionedBy(DataSet.STUDENTS)
     public ResponseEntity<Student> getStudentById(@PathVariable Long id) {
         return ResponseEntity.ok(studentService.getStudentById(id));
     }
@@ -105,36 +173,37 @@ public class StudentController {
         return ResponseEntity.ok().build();
     }
 
+    // Body: a JSON array of student ids
+    @PostMapping("/bulk-delete")
+    public ResponseEntity<Map<String, Object>> deleteStudents(@RequestBody List<Long> ids) {
+        return ResponseEntity.ok(Map.of("deleted", studentService.deleteStudents(ids)));
+    }
+
     @GetMapping("/search")
+    @VersionedBy(DataSet.STUDENTS)
     public ResponseEntity<List<Student>> searchStudents(
+            @RequestParam(required = false) String q,
             @RequestParam(required = false) String name,
             @RequestParam(required = false) String email,
-            @RequestParam(required = false) String phone) {
-        return ResponseEntity.ok(studentService.searchStudents(name, email, phone));
+            @RequestParam(required = false) String phone,
+            @RequestParam(defaultValue = "50") int limit) {
+        if (limit < 1 || limit > 500) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(studentService.searchStudents(q, name, email, phone, limit));
     }
 
     @GetMapping("/document/{filename}")
-    public ResponseEntity<org.springframework.core.io.Resource> getDocument(@PathVariable String filename) {
-        try {
-            Path filePath = Paths.get("frontend/uploads/documents/" + filename);
-            System.out.println("Looking for file at: " + filePath.toAbsolutePath());
-            
-            org.springframework.core.io.Resource resource = new org.springframework.core.io.UrlResource(filePath.toUri());
-            
-            if (resource.exists() && resource.isReadable()) {
-                System.out.println("File found and readable: " + filename);
-                return ResponseEntity.ok()
-                        .header("Content-Disposition", "inline; filename=\"" + filename + "\"")
-                        .body(resource);
-            } else {
-                System.out.println("File not found or not readable: " + filename);
-                return ResponseEntity.notFound().build();
-            }
-        } catch (Exception e) {
-            System.out.println("Error serving file: " + e.getMessage());
-            e.printStackTrace();
-            return ResponseEntity.notFound().build();
+    public void getDocument(@PathVariable String filename, HttpServletRequest request,
+            HttpServletResponse response) throws IOException {
+        Path file = documentStorageService.resolve(filename);
+        if (file == null || !Files.isRegularFile(file)) {
+            System.out.println("File not found or not readable: " + filename);
+            response.setStatus(HttpServletResponse.SC_NOT_FOUND);
+            return;
         }
+        documentSender.send(file, documentStorageService.getETag(file),
+                documentStorageService.isWriteOnce(filename), request, response);
     }
 
     @GetMapping("/test-document")
@@ -156,29 +225,6 @@ public class StudentController {
         }
     }
 
-    @PostMapping("/fix-document-paths")
-    public ResponseEntity<String> fixDocumentPaths() {
-        try {
-            List<Student> students = studentService.getAllStudents();
-            int fixedCount = 0;
-            
-            for (Student student : students) {
-                if (student.getTenthClassDocument() != null && 
-                    student.getTenthClassDocument().startsWith("uploads/documents/")) {
-                    // Extract just the filename
-                    String filename = student.getTenthClassDocument().substring("uploads/documents/".length());
-                    student.setTenthClassDocument(filename);
-                    studentService.updateStudent(student.getId(), student);
-                    fixedCount++;
-                }
-            }
-            
-            return ResponseEntity.ok("Fixed " + fixedCount + " student document paths");
-        } catch (Exception e) {
-            return ResponseEntity.ok("Error fixing paths: " + e.getMessage());
-        }
-    }
-
     @GetMapping("/list-documents")
     public ResponseEntity<String> listDocuments() {
         try {
@@ -224,8 +270,9 @@ public class StudentController {
                 return ResponseEntity.ok("File is empty");
             }
             
-            String filename = saveDocument(file, "test");
-            return ResponseEntity.ok("File uploaded successfully: " + filename);
+            StoredDocument document = documentStorageService.store(file);
+            return ResponseEntity.ok("File uploaded successfully: " + document.filename()
+                    + (document.deduplicated() ? " (already stored)" : ""));
         } catch (Exception e) {
             System.out.println("Test upload error: " + e.getMessage());
             e.printStackTrace();
@@ -233,55 +280,29 @@ public class StudentController {
         }
     }
 
-    @PostMapping("/cleanup-missing-documents")
-    public ResponseEntity<String> cleanupMissingDocuments() {
-        try {
-            List<Student> students = studentService.getAllStudents();
-            int cleanedCount = 0;
-            
-            for (Student student : students) {
-                if (student.getTenthClassDocument() != null) {
-                    Path filePath = Paths.get("frontend/uploads/documents/" + student.getTenthClassDocument());
-                    if (!Files.exists(filePath)) {
-                        System.out.println("Removing missing document reference for student " + student.getId() + ": " + student.getTenthClassDocument());
-                        student.setTenthClassDocument(null);
-                        studentService.updateStudent(student.getId(), student);
-                        cleanedCount++;
-                    }
-                }
-            }
-            
-            return ResponseEntity.ok("Cleaned up " + cleanedCount + " missing document references");
-        } catch (Exception e) {
-            return ResponseEntity.ok("Error cleaning up: " + e.getMessage());
-        }
+    // One batch of the unreferenced-document collection that otherwise runs every few minutes
+    @PostMapping("/collect-documents")
+    public ResponseEntity<Map<String, Object>> collectDocuments() {
+        return ResponseEntity.ok(documentCollector.collect());
     }
 
-    private String saveDocument(MultipartFile file, String documentType) throws IOException {
-        // Create uploads directory if it doesn't exist
-        String uploadDir = "frontend/uploads/documents/";
-        File directory = new File(uploadDir);
-        if (!directory.exists()) {
-            directory.mkdirs();
-            System.out.println("Created directory: " + directory.getAbsolutePath());
-        }
+    // The old cleanup and path-fixing endpoints start the same scan
+    @PostMapping({"/document-scan", "/cleanup-missing-documents", "/fix-document-paths"})
+    public ResponseEntity<Map<String, Object>> startDocumentScan() {
+        return ResponseEntity.accepted().body(documentIntegrityService.start());
+    }
+
+    @GetMapping("/document-scan")
+    public ResponseEntity<Map<String, Object>> getDocumentScan() {
+        Map<String, Object> status = documentIntegrityService.getStatus();
+        return status != null ? ResponseEntity.ok(status) : ResponseEntity.notFound().build();
+    }
 
-        // Generate unique filename
-        String originalFilename = file.getOriginalFilename();
-        String fileExtension = "";
-        if (originalFilename != null && originalFilename.contains(".")) {
-            fileExtension = originalFilename.substring(originalFilename.lastIndexOf("."));
+    @DeleteMapping("/document-scan")
+    public ResponseEntity<Map<String, Object>> cancelDocumentScan() {
+        if (!documentIntegrityService.cancel()) {
+            return ResponseEntity.notFound().build();
         }
-        String uniqueFilename = documentType + "_" + UUID.randomUUID().toString() + fileExtension;
-        
-        // Save file
-        Path filePath = Paths.get(uploadDir + uniqueFilename);
-        Files.write(filePath, file.getBytes());
-        
-        System.out.println("File saved successfully: " + filePath.toAbsolutePath());
-        System.out.println("Returning filename: " + uniqueFilename);
-        
-        // Return just the filename for storage in database
-        return uniqueFilename;
+        return ResponseEntity.ok(documentIntegrityService.getStatus());
     }
-} 
\ No newline at end of file
+}
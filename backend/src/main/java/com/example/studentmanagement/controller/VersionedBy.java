@@ -0,0 +1,16 @@
+package com.example.studentmanagement.controller;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+import com.example.studentmanagement.service.DataChangedEvent.DataSet;
+
+// Marks a GET endpoint whose response only changes when the given data sets are written;
+// such endpoints get an ETag and answer If-None-Match with 304 (see ConditionalGetInterceptor)
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface VersionedBy {
+    DataSet[] value();
+}
@@ -0,0 +1,94 @@
+package com.example.studentmanagement.model;
+
+import java.time.LocalDateTime;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+
+// One stored document body, kept once however many students reference it
+@Entity
+@Table(name = "document_blobs", indexes = {
+        @Index(name = "idx_document_blobs_released_at", columnList = "released_at")
+})
+public class DocumentBlob {
+    @Id
+    @Column(length = 64)
+    private String sha256;
+
+    @Column(nullable = false, length = 8)
+    private String extension;
+
+    @Column(nullable = false)
+    private long size;
+
+    @Column(nullable = false)
+    private int refCount;
+
+    private LocalDateTime createdAt;
+
+    // When refCount last reached zero (or the upload time, before any student used it); null while referenced
+    @Column(name = "released_at")
+    private LocalDateTime releasedAt;
+
+    public DocumentBlob() {
+    }
+
+    public DocumentBlob(String sha256, String extension, long size, LocalDateTime createdAt) {
+        this.sha256 = sha256;
+        this.extension = extension;
+        this.size = size;
+        this.createdAt = createdAt;
+        this.releasedAt = createdAt;
+    }
+
+    public String getSha256() {
+        return sha256;
+    }
+
+    public void setSha256(String sha256) {
+        this.sha256 = sha256;
+    }
+
+    public String getExtension() {
+        return extension;
+    }
+
+    public void setExtension(String extension) {
+        this.extension = extension;
+    }
+
+    public long getSize() {
+        return size;
+    }
+
+    public void setSize(long size) {
+        this.size = size;
+    }
+
+    public int getRefCount() {
+        return refCount;
+    }
+
+    public void setRefCount(int refCount) {
+        this.refCount = refCount;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    public LocalDateTime getReleasedAt() {
+        return releasedAt;
+    }
+
+    public void setReleasedAt(LocalDateTime releasedAt) {
+        this.releasedAt = releasedAt;
+    }
+}
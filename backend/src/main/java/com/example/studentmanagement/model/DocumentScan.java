@@ -0,0 +1,133 @@
+package com.example.studentmanagement.model;
+
+import java.time.LocalDateTime;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+
+// One run of the document integrity scan; lastStudentId is the checkpoint it resumes from
+@Entity
+@Table(name = "document_scans")
+public class DocumentScan {
+    public enum Status {
+        RUNNING, DONE, FAILED, CANCELLED
+    }
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private Status status = Status.RUNNING;
+
+    private LocalDateTime startedAt;
+    private LocalDateTime finishedAt;
+
+    // Students up to and including this id have been checked and fixed
+    private long lastStudentId;
+
+    private long studentsChecked;
+    private long pathsFixed;
+    private long missingCleared;
+    private long derivativesCleared;
+    // Stored documents no student refers to; reported, not deleted
+    private Long unreferencedFiles;
+
+    @Column(length = 500)
+    private String error;
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public void setStatus(Status status) {
+        this.status = status;
+    }
+
+    public LocalDateTime getStartedAt() {
+        return startedAt;
+    }
+
+    public void setStartedAt(LocalDateTime startedAt) {
+        this.startedAt = startedAt;
+    }
+
+    public LocalDateTime getFinishedAt() {
+        return finishedAt;
+    }
+
+    public void setFinishedAt(LocalDateTime finishedAt) {
+        this.finishedAt = finishedAt;
+    }
+
+    public long getLastStudentId() {
+        return lastStudentId;
+    }
+
+    public void setLastStudentId(long lastStudentId) {
+        this.lastStudentId = lastStudentId;
+    }
+
+    public long getStudentsChecked() {
+        return studentsChecked;
+    }
+
+    public void setStudentsChecked(long studentsChecked) {
+        this.studentsChecked = studentsChecked;
+    }
+
+    public long getPathsFixed() {
+        return pathsFixed;
+    }
+
+    public void setPathsFixed(long pathsFixed) {
+        this.pathsFixed = pathsFixed;
+    }
+
+    public long getMissingCleared() {
+        return missingCleared;
+    }
+
+    public void setMissingCleared(long missingCleared) {
+        this.missingCleared = missingCleared;
+    }
+
+    public long getDerivativesCleared() {
+        return derivativesCleared;
+    }
+
+    public void setDerivativesCleared(long derivativesCleared) {
+        this.derivativesCleared = derivativesCleared;
+    }
+
+    public Long getUnreferencedFiles() {
+        return unreferencedFiles;
+    }
+
+    public void setUnreferencedFiles(Long unreferencedFiles) {
+        this.unreferencedFiles = unreferencedFiles;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public void setError(String error) {
+        this.error = error;
+    }
+}
@@ -7,10 +7,14 @@ import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.Table;
 
 @Entity
-@Table(name = "enquiries")
+@Table(name = "enquiries", indexes = {
+        @Index(name = "idx_enquiries_date_of_enquiry", columnList = "date_of_enquiry"),
+        @Index(name = "idx_enquiries_phone_number", columnList = "phone_number")
+})
 public class Enquiry {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -1,17 +1,28 @@
 package com.example.studentmanagement.model;
 
 import java.time.LocalDateTime;
+import java.util.Locale;
+import java.util.Objects;
 
+import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
+import jakarta.persistence.PostLoad;
+import jakarta.persistence.PrePersist;
+import jakarta.persistence.PreUpdate;
 import jakarta.persistence.Table;
+import jakarta.persistence.Transient;
 
 @Entity
-@Table(name = "payments")
+@Table(name = "payments", indexes = {
+        @Index(name = "idx_payments_payment_date", columnList = "payment_date"),
+        @Index(name = "uk_payments_receipt_key", columnList = "receipt_key", unique = true)
+})
 public class Payment {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -31,6 +42,40 @@ public class Payment {
     private String manualReceiptNumber;
     private Boolean isManualReceipt = false;
 
+    // receiptNumber as lookups match it; maintained here, never exposed
+    @Column(name = "receipt_key", length = 100)
+    private String receiptKey;
+
+    // The receipt number as loaded, so an update only re-derives the key when it changed
+    @Transient
+    private String loadedReceiptNumber;
+
+    @PostLoad
+    protected void onLoad() {
+        loadedReceiptNumber = receiptNumber;
+    }
+
+    @PrePersist
+    protected void onCreate() {
+        receiptKey = normalizeReceiptNumber(receiptNumber);
+    }
+
+    // A legacy duplicate keeps the key the backfill gave it until its number is edited
+    @PreUpdate
+    protected void onUpdate() {
+        if (!Objects.equals(receiptNumber, loadedReceiptNumber)) {
+            receiptKey = normalizeReceiptNumber(receiptNumber);
+        }
+    }
+
+    // Trimmed and upper-cased, so "rec-1 " and "REC-1" are the same receipt
+    public static String normalizeReceiptNumber(String receiptNumber) {
+        if (receiptNumber == null || receiptNumber.trim().isEmpty()) {
+            return null;
+        }
+        return receiptNumber.trim().toUpperCase(Locale.ROOT);
+    }
+
     // Getters and Setters
     public Long getId() {
         return id;
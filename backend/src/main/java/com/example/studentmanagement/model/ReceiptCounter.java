@@ -0,0 +1,42 @@
+package com.example.studentmanagement.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+
+// Next unreserved receipt sequence number for one day (yyyyMMdd)
+@Entity
+@Table(name = "receipt_counters")
+public class ReceiptCounter {
+    @Id
+    @Column(name = "receipt_day", length = 8)
+    private String day;
+
+    @Column(nullable = false)
+    private long nextValue;
+
+    public ReceiptCounter() {
+    }
+
+    public ReceiptCounter(String day, long nextValue) {
+        this.day = day;
+        this.nextValue = nextValue;
+    }
+
+    public String getDay() {
+        return day;
+    }
+
+    public void setDay(String day) {
+        this.day = day;
+    }
+
+    public long getNextValue() {
+        return nextValue;
+    }
+
+    public void setNextValue(long nextValue) {
+        this.nextValue = nextValue;
+    }
+}
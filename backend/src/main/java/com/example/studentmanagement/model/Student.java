@@ -5,17 +5,26 @@ import java.time.LocalDate;
 import java.util.HashSet;
 import java.util.Set;
 
+import org.hibernate.annotations.BatchSize;
+import org.hibernate.annotations.DynamicUpdate;
+
 import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.JoinTable;
 import jakarta.persistence.ManyToMany;
 import jakarta.persistence.Table;
 
 @Entity
-@Table(name = "students")
+@DynamicUpdate // saving an edited student must not write back a paidAmount read before a concurrent payment
+@Table(name = "students", indexes = {
+        @Index(name = "idx_students_admission_date", columnList = "admission_date"),
+        @Index(name = "idx_students_name", columnList = "name"),
+        @Index(name = "idx_students_tenth_class_document", columnList = "tenth_class_document")
+})
 public class Student {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -39,6 +48,9 @@ public class Student {
     
     // Document upload field
     private String tenthClassDocument; // Path to uploaded 10th class document
+    // Downscaled JPEG copies of an image document, filled in by DocumentPreviewService
+    private String tenthClassDocumentPreview;
+    private String tenthClassDocumentThumbnail;
 
     // Link to Enquiry if student was added from an enquiry
     private Long enquiryId;
@@ -50,6 +62,7 @@ public class Student {
         joinColumns = @JoinColumn(name = "student_id"),
         inverseJoinColumns = @JoinColumn(name = "batch_id")
     )
+    @BatchSize(size = 100) // a page of students loads its batches in a few queries, not one per student
     private Set<Batch> batches = new HashSet<>();
 
     // Getters and Setters
@@ -181,6 +194,22 @@ public class Student {
         this.tenthClassDocument = tenthClassDocument;
     }
 
+    public String getTenthClassDocumentPreview() {
+        return tenthClassDocumentPreview;
+    }
+
+    public void setTenthClassDocumentPreview(String tenthClassDocumentPreview) {
+        this.tenthClassDocumentPreview = tenthClassDocumentPreview;
+    }
+
+    public String getTenthClassDocumentThumbnail() {
+        return tenthClassDocumentThumbnail;
+    }
+
+    public void setTenthClassDocumentThumbnail(String tenthClassDocumentThumbnail) {
+        this.tenthClassDocumentThumbnail = tenthClassDocumentThumbnail;
+    }
+
     public Set<Batch> getBatches() {
         return batches;
     }
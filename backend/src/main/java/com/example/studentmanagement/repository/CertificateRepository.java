@@ -3,11 +3,19 @@ package com.example.studentmanagement.repository;
 import com.example.studentmanagement.model.Certificate;
 import com.example.studentmanagement.model.Student;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
 public interface CertificateRepository extends JpaRepository<Certificate, Long> {
     List<Certificate> findByStudent(Student student);
     List<Certificate> findByRegistrationNumber(String registrationNumber);
-} 
\ No newline at end of file
+
+    @Modifying
+    @Query("DELETE FROM Certificate c WHERE c.student.id IN :studentIds")
+    int deleteByStudentIds(@Param("studentIds") Collection<Long> studentIds);
+}
\ No newline at end of file
@@ -0,0 +1,15 @@
+package com.example.studentmanagement.repository;
+
+import java.time.LocalDate;
+
+// One row of a GROUP BY year/month/day aggregate query
+public interface DailyTotal {
+    Integer getYear();
+    Integer getMonth();
+    Integer getDay();
+    Number getTotal();
+
+    default LocalDate toDate() {
+        return LocalDate.of(getYear(), getMonth(), getDay());
+    }
+}
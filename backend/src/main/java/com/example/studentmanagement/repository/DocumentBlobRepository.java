@@ -0,0 +1,50 @@
+package com.example.studentmanagement.repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import com.example.studentmanagement.model.DocumentBlob;
+
+@Repository
+public interface DocumentBlobRepository extends JpaRepository<DocumentBlob, String> {
+    @Modifying
+    @Query("UPDATE DocumentBlob b SET b.refCount = b.refCount + :count, b.releasedAt = NULL "
+            + "WHERE b.sha256 IN :hashes")
+    int addReferences(@Param("hashes") Collection<String> hashes, @Param("count") int count);
+
+    @Modifying
+    @Query("UPDATE DocumentBlob b SET b.refCount = b.refCount - :count WHERE b.sha256 IN :hashes")
+    int removeReferences(@Param("hashes") Collection<String> hashes, @Param("count") int count);
+
+    // Starts the grace period of blobs whose last reference has just gone
+    @Modifying
+    @Query("UPDATE DocumentBlob b SET b.releasedAt = :now "
+            + "WHERE b.sha256 IN :hashes AND b.refCount <= 0 AND b.releasedAt IS NULL")
+    int markReleased(@Param("hashes") Collection<String> hashes, @Param("now") LocalDateTime now);
+
+    // Restarts the grace period of an unreferenced blob that has just been uploaded again
+    @Modifying
+    @Query("UPDATE DocumentBlob b SET b.releasedAt = :now WHERE b.sha256 = :sha256 AND b.refCount <= 0")
+    int touchUnreferenced(@Param("sha256") String sha256, @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Query("UPDATE DocumentBlob b SET b.refCount = :refCount, b.releasedAt = NULL WHERE b.sha256 = :sha256")
+    int setReferenced(@Param("sha256") String sha256, @Param("refCount") int refCount);
+
+    // Oldest releases first; referenced blobs have no releasedAt and never match
+    @Query("SELECT b FROM DocumentBlob b WHERE b.releasedAt < :cutoff AND b.refCount <= 0 ORDER BY b.releasedAt")
+    List<DocumentBlob> findCollectable(@Param("cutoff") LocalDateTime cutoff, Pageable pageable);
+
+    // Deletes only if nothing has referenced or re-uploaded the blob since it was picked
+    @Modifying
+    @Query("DELETE FROM DocumentBlob b WHERE b.sha256 = :sha256 AND b.refCount <= 0 AND b.releasedAt < :cutoff")
+    int deleteIfCollectable(@Param("sha256") String sha256, @Param("cutoff") LocalDateTime cutoff);
+}
@@ -0,0 +1,16 @@
+package com.example.studentmanagement.repository;
+
+import java.util.Optional;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import com.example.studentmanagement.model.DocumentScan;
+import com.example.studentmanagement.model.DocumentScan.Status;
+
+@Repository
+public interface DocumentScanRepository extends JpaRepository<DocumentScan, Long> {
+    Optional<DocumentScan> findFirstByOrderByIdDesc();
+
+    Optional<DocumentScan> findFirstByStatusOrderByIdDesc(Status status);
+}
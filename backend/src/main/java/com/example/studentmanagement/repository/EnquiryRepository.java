@@ -1,11 +1,73 @@
 package com.example.studentmanagement.repository;
 
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.hibernate.jpa.HibernateHints;
+
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import com.example.studentmanagement.model.Enquiry;
 
+import jakarta.persistence.QueryHint;
+
 @Repository
 public interface EnquiryRepository extends JpaRepository<Enquiry, Long> {
-    // Custom query methods can be added here if needed
+    @Query("SELECT e.dateOfEnquiry FROM Enquiry e")
+    List<LocalDate> findAllEnquiryDates();
+
+    @Query("SELECT e.dateOfEnquiry FROM Enquiry e WHERE e.phoneNumber IN :phoneNumbers")
+    List<LocalDate> findEnquiryDatesByPhoneNumbers(@Param("phoneNumbers") Collection<String> phoneNumbers);
+
+    // Export columns of the enquiries taken on the days from..to, oldest first
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("SELECT e.dateOfEnquiry, e.name, e.fatherName, e.phoneNumber, e.course, e.courseDuration, "
+            + "e.convertedToStudent, e.takenBy, e.remarks FROM Enquiry e "
+            + "WHERE e.dateOfEnquiry >= :from AND e.dateOfEnquiry <= :to ORDER BY e.dateOfEnquiry, e.id")
+    Stream<Object[]> streamExportRows(@Param("from") LocalDate from, @Param("to") LocalDate to);
+
+    @Modifying
+    @Query("DELETE FROM Enquiry e WHERE e.phoneNumber IN :phoneNumbers")
+    int deleteByPhoneNumbers(@Param("phoneNumbers") Collection<String> phoneNumbers);
+
+    // Enquiries per month in [from, to)
+    @Query("SELECT YEAR(e.dateOfEnquiry) AS year, MONTH(e.dateOfEnquiry) AS month, COUNT(e) AS total "
+            + "FROM Enquiry e WHERE e.dateOfEnquiry >= :from AND e.dateOfEnquiry < :to "
+            + "GROUP BY YEAR(e.dateOfEnquiry), MONTH(e.dateOfEnquiry)")
+    List<MonthlyTotal> countEnquiriesByMonth(@Param("from") LocalDate from, @Param("to") LocalDate to);
+
+    // Enquiries per day in [from, to)
+    @Query("SELECT YEAR(e.dateOfEnquiry) AS year, MONTH(e.dateOfEnquiry) AS month, DAY(e.dateOfEnquiry) AS day, "
+            + "COUNT(e) AS total FROM Enquiry e WHERE e.dateOfEnquiry >= :from AND e.dateOfEnquiry < :to "
+            + "GROUP BY YEAR(e.dateOfEnquiry), MONTH(e.dateOfEnquiry), DAY(e.dateOfEnquiry)")
+    List<DailyTotal> countEnquiriesByDay(@Param("from") LocalDate from, @Param("to") LocalDate to);
+
+    // Converted enquiries per month of enquiry in [from, to)
+    @Query("SELECT YEAR(e.dateOfEnquiry) AS year, MONTH(e.dateOfEnquiry) AS month, COUNT(e) AS total "
+            + "FROM Enquiry e WHERE e.convertedToStudent = true AND e.dateOfEnquiry >= :from AND e.dateOfEnquiry < :to "
+            + "GROUP BY YEAR(e.dateOfEnquiry), MONTH(e.dateOfEnquiry)")
+    List<MonthlyTotal> countConversionsByMonth(@Param("from") LocalDate from, @Param("to") LocalDate to);
+
+    // Converted enquiries per day of enquiry in [from, to)
+    @Query("SELECT YEAR(e.dateOfEnquiry) AS year, MONTH(e.dateOfEnquiry) AS month, DAY(e.dateOfEnquiry) AS day, "
+            + "COUNT(e) AS total FROM Enquiry e WHERE e.convertedToStudent = true AND e.dateOfEnquiry >= :from "
+            + "AND e.dateOfEnquiry < :to GROUP BY YEAR(e.dateOfEnquiry), MONTH(e.dateOfEnquiry), DAY(e.dateOfEnquiry)")
+    List<DailyTotal> countConversionsByDay(@Param("from") LocalDate from, @Param("to") LocalDate to);
+
+    // Newest enquiries first; the page size is the LIMIT
+    @Query("SELECT e FROM Enquiry e WHERE e.dateOfEnquiry IS NOT NULL ORDER BY e.dateOfEnquiry DESC, e.id DESC")
+    List<Enquiry> findLatestEnquiries(Pageable pageable);
+
+    // Keyset continuation of findLatestEnquiries after (dateOfEnquiry, id)
+    @Query("SELECT e FROM Enquiry e WHERE e.dateOfEnquiry < :date OR (e.dateOfEnquiry = :date AND e.id < :id) "
+            + "ORDER BY e.dateOfEnquiry DESC, e.id DESC")
+    List<Enquiry> findEnquiriesBefore(@Param("date") LocalDate date, @Param("id") long id, Pageable pageable);
 } 
\ No newline at end of file
@@ -1,7 +1,11 @@
 package com.example.studentmanagement.repository;
 
+import java.util.Collection;
 import java.util.List;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import com.example.studentmanagement.model.FeedbackEntry;
 import com.example.studentmanagement.model.Enquiry;
@@ -10,4 +14,10 @@ import com.example.studentmanagement.model.Enquiry;
 public interface FeedbackRepository extends JpaRepository<FeedbackEntry, Long> {
     List<FeedbackEntry> findByEnquiryOrderByCreatedAtDesc(Enquiry enquiry);
     List<FeedbackEntry> findByEnquiryIdOrderByCreatedAtDesc(Long enquiryId);
-} 
\ No newline at end of file
+
+    // Feedback on the enquiries made from any of these phone numbers
+    @Modifying
+    @Query("DELETE FROM FeedbackEntry f WHERE f.enquiry.id IN "
+            + "(SELECT e.id FROM Enquiry e WHERE e.phoneNumber IN :phoneNumbers)")
+    int deleteByEnquiryPhoneNumbers(@Param("phoneNumbers") Collection<String> phoneNumbers);
+}
\ No newline at end of file
@@ -0,0 +1,7 @@
+package com.example.studentmanagement.repository;
+
+// One row of a GROUP BY query over a text column
+public interface LabelTotal {
+    String getLabel();
+    Number getTotal();
+}
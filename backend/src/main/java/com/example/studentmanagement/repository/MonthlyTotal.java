@@ -0,0 +1,14 @@
+package com.example.studentmanagement.repository;
+
+import java.time.YearMonth;
+
+// One row of a GROUP BY year/month aggregate query
+public interface MonthlyTotal {
+    Integer getYear();
+    Integer getMonth();
+    Number getTotal();
+
+    default YearMonth toYearMonth() {
+        return YearMonth.of(getYear(), getMonth());
+    }
+}
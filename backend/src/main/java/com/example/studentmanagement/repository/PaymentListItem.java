@@ -0,0 +1,27 @@
+package com.example.studentmanagement.repository;
+
+import java.time.LocalDateTime;
+
+// A payment as the payments table shows it, with just enough of the student to label the row
+public record PaymentListItem(Long id, Double amount, String paymentMethod, String transactionId,
+        LocalDateTime paymentDate, String status, String description, String receiptNumber,
+        String manualReceiptNumber, Boolean isManualReceipt, StudentRef student) {
+
+    public record StudentRef(Long id, String name, String phoneNumber, String courses) {
+    }
+
+    // Flat form used by the constructor expression, which cannot nest
+    public PaymentListItem(Long id, Double amount, String paymentMethod, String transactionId,
+            LocalDateTime paymentDate, String status, String description, String receiptNumber,
+            String manualReceiptNumber, Boolean isManualReceipt,
+            Long studentId, String studentName, String studentPhoneNumber, String studentCourses) {
+        this(id, amount, paymentMethod, transactionId, paymentDate, status, description, receiptNumber,
+                manualReceiptNumber, isManualReceipt,
+                studentId == null ? null : new StudentRef(studentId, studentName, studentPhoneNumber, studentCourses));
+    }
+
+    static final String SELECT = "SELECT new com.example.studentmanagement.repository.PaymentListItem("
+            + "p.id, p.amount, p.paymentMethod, p.transactionId, p.paymentDate, p.status, p.description, "
+            + "p.receiptNumber, p.manualReceiptNumber, p.isManualReceipt, "
+            + "s.id, s.name, s.phoneNumber, s.courses) FROM Payment p LEFT JOIN p.student s";
+}
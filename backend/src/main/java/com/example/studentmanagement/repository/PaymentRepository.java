@@ -1,15 +1,94 @@
 package com.example.studentmanagement.repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
+import org.hibernate.jpa.HibernateHints;
+
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import com.example.studentmanagement.model.Payment;
 
+import jakarta.persistence.QueryHint;
+
 @Repository
 public interface PaymentRepository extends JpaRepository<Payment, Long> {
     List<Payment> findByStudentId(Long studentId);
     List<Payment> findByStatus(String status);
     List<Payment> findByStudentIdOrderByPaymentDateDesc(Long studentId);
+
+    // paymentDate, amount of the given students' payments
+    @Query("SELECT p.paymentDate, p.amount FROM Payment p WHERE p.student.id IN :studentIds")
+    List<Object[]> findAggregateRowsByStudentIds(@Param("studentIds") Collection<Long> studentIds);
+
+    @Modifying
+    @Query("DELETE FROM Payment p WHERE p.student.id IN :studentIds")
+    int deleteByStudentIds(@Param("studentIds") Collection<Long> studentIds);
+
+    @Query("SELECT p.receiptNumber FROM Payment p WHERE p.receiptNumber LIKE CONCAT(:prefix, '%')")
+    List<String> findReceiptNumbersStartingWith(@Param("prefix") String prefix);
+
+    // Uses uk_payments_receipt_key; pass the key from Payment.normalizeReceiptNumber
+    @Query(ReceiptLookupRow.SELECT + " WHERE p.receiptKey = :receiptKey")
+    Optional<ReceiptLookupRow> findReceiptLookupRow(@Param("receiptKey") String receiptKey);
+
+    // Id of the payment holding the receipt key, if any
+    @Query("SELECT p.id FROM Payment p WHERE p.receiptKey = :receiptKey")
+    Optional<Long> findIdByReceiptKey(@Param("receiptKey") String receiptKey);
+
+    // id, receiptNumber of rows saved before receipt_key existed
+    @Query("SELECT p.id, p.receiptNumber FROM Payment p WHERE p.receiptKey IS NULL AND p.receiptNumber IS NOT NULL")
+    List<Object[]> findRowsWithoutReceiptKey();
+
+    @Modifying
+    @Query("UPDATE Payment p SET p.receiptKey = :receiptKey WHERE p.id = :id")
+    int setReceiptKey(@Param("id") Long id, @Param("receiptKey") String receiptKey);
+
+    // The payments table: one select joining just the student columns it shows
+    @Query(PaymentListItem.SELECT + " ORDER BY p.id")
+    List<PaymentListItem> findListItems();
+
+    @Query("SELECT COALESCE(SUM(p.amount), 0) FROM Payment p")
+    Double sumAmount();
+
+    // Paid in [from, to), oldest first, for exports
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query(PaymentListItem.SELECT + " WHERE p.paymentDate >= :from AND p.paymentDate < :to "
+            + "ORDER BY p.paymentDate, p.id")
+    Stream<PaymentListItem> streamListItemsPaidBetween(@Param("from") LocalDateTime from,
+            @Param("to") LocalDateTime to);
+
+    // paymentDate, amount for every payment, without loading the student
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("SELECT p.paymentDate, p.amount FROM Payment p")
+    Stream<Object[]> streamAggregateRows();
+
+    // Amount collected per month in [from, to)
+    @Query("SELECT YEAR(p.paymentDate) AS year, MONTH(p.paymentDate) AS month, COALESCE(SUM(p.amount), 0) AS total "
+            + "FROM Payment p WHERE p.paymentDate >= :from AND p.paymentDate < :to "
+            + "GROUP BY YEAR(p.paymentDate), MONTH(p.paymentDate)")
+    List<MonthlyTotal> sumAmountByMonth(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+
+    @Query("SELECT p.paymentMethod AS label, COUNT(p) AS total FROM Payment p "
+            + "WHERE p.paymentMethod IS NOT NULL GROUP BY p.paymentMethod")
+    List<LabelTotal> countByPaymentMethod();
+
+    // Newest payments first, with their student in the same select
+    @Query("SELECT p FROM Payment p JOIN FETCH p.student WHERE p.paymentDate IS NOT NULL "
+            + "ORDER BY p.paymentDate DESC, p.id DESC")
+    List<Payment> findLatestPayments(Pageable pageable);
+
+    // Keyset continuation of findLatestPayments after (paymentDate, id)
+    @Query("SELECT p FROM Payment p JOIN FETCH p.student WHERE p.paymentDate < :date "
+            + "OR (p.paymentDate = :date AND p.id < :id) ORDER BY p.paymentDate DESC, p.id DESC")
+    List<Payment> findPaymentsBefore(@Param("date") LocalDateTime date, @Param("id") long id, Pageable pageable);
 } 
\ No newline at end of file
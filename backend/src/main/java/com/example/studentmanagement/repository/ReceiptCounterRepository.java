@@ -0,0 +1,20 @@
+package com.example.studentmanagement.repository;
+
+import java.util.Optional;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import com.example.studentmanagement.model.ReceiptCounter;
+
+import jakarta.persistence.LockModeType;
+
+@Repository
+public interface ReceiptCounterRepository extends JpaRepository<ReceiptCounter, String> {
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT c FROM ReceiptCounter c WHERE c.day = :day")
+    Optional<ReceiptCounter> findForUpdate(@Param("day") String day);
+}
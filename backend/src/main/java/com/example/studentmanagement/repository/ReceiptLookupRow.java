@@ -0,0 +1,17 @@
+package com.example.studentmanagement.repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+// The receipt and student fields the receipt lookup report shows, read in one select
+public record ReceiptLookupRow(String receiptNumber, Double amount, LocalDateTime paymentDate,
+        String paymentMethod, String description, String status,
+        Long studentId, String studentName, String fatherName, String phoneNumber, String email,
+        String courses, LocalDate admissionDate, BigDecimal totalCourseFee, BigDecimal remainingAmount) {
+
+    static final String SELECT = "SELECT new com.example.studentmanagement.repository.ReceiptLookupRow("
+            + "p.receiptNumber, p.amount, p.paymentDate, p.paymentMethod, p.description, p.status, "
+            + "s.id, s.name, s.fatherName, s.phoneNumber, s.email, s.courses, s.admissionDate, "
+            + "s.totalCourseFee, s.remainingAmount) FROM Payment p LEFT JOIN p.student s";
+}
@@ -0,0 +1,19 @@
+package com.example.studentmanagement.repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+// A student as list views show it: the scalar columns only, without the batches
+public record StudentListItem(Long id, String name, String fatherName, String motherName, String dob,
+        String email, String phoneNumber, String address, String courses, String courseDuration,
+        BigDecimal totalCourseFee, BigDecimal paidAmount, BigDecimal remainingAmount,
+        LocalDate admissionDate, String tenthClassDocument, String tenthClassDocumentPreview,
+        String tenthClassDocumentThumbnail, Long enquiryId) {
+
+    // Constructor expression over Student s; the queries append their own WHERE/ORDER BY
+    static final String SELECT = "SELECT new com.example.studentmanagement.repository.StudentListItem("
+            + "s.id, s.name, s.fatherName, s.motherName, s.dob, s.email, s.phoneNumber, s.address, "
+            + "s.courses, s.courseDuration, s.totalCourseFee, s.paidAmount, s.remainingAmount, "
+            + "s.admissionDate, s.tenthClassDocument, s.tenthClassDocumentPreview, "
+            + "s.tenthClassDocumentThumbnail, s.enquiryId) FROM Student s";
+}
@@ -1,15 +1,187 @@
 package com.example.studentmanagement.repository;
 
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
+import org.hibernate.jpa.HibernateHints;
+
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import com.example.studentmanagement.model.Student;
 
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+
 @Repository
 public interface StudentRepository extends JpaRepository<Student, Long> {
     Optional<Student> findByPhoneNumber(String phoneNumber);
     List<Student> findByPhoneNumberOrderByIdDesc(String phoneNumber);
+
+    // Holds the row until the transaction ends, so a concurrent payment cannot slip in between
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT s FROM Student s WHERE s.id = :id")
+    Optional<Student> findForUpdate(@Param("id") Long id);
+
+    // admissionDate, totalCourseFee, paidAmount, remainingAmount for every student
+    @Query("SELECT s.admissionDate, s.totalCourseFee, s.paidAmount, s.remainingAmount FROM Student s")
+    List<Object[]> findAggregateRows();
+
+    // Atomic balance change. remainingAmount is assigned first so that it sees the old paidAmount
+    // on every database (MySQL applies SET assignments left to right).
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Student s SET s.remainingAmount = CASE WHEN s.totalCourseFee IS NULL THEN s.remainingAmount "
+            + "ELSE s.totalCourseFee - COALESCE(s.paidAmount, 0) - :delta END, "
+            + "s.paidAmount = COALESCE(s.paidAmount, 0) + :delta WHERE s.id = :id")
+    int addToPaidAmount(@Param("id") Long id, @Param("delta") BigDecimal delta);
+
+    // admissionDate, totalCourseFee, paidAmount, remainingAmount of one student
+    @Query("SELECT s.admissionDate, s.totalCourseFee, s.paidAmount, s.remainingAmount FROM Student s WHERE s.id = :id")
+    List<Object[]> findBalanceRow(@Param("id") Long id);
+
+    // id, admissionDate, totalCourseFee, paidAmount, phoneNumber, remainingAmount, tenthClassDocument of the given students
+    @Query("SELECT s.id, s.admissionDate, s.totalCourseFee, s.paidAmount, s.phoneNumber, s.remainingAmount, "
+            + "s.tenthClassDocument FROM Student s WHERE s.id IN :ids")
+    List<Object[]> findDeletionRows(@Param("ids") Collection<Long> ids);
+
+    long countByTenthClassDocument(String tenthClassDocument);
+
+    // id, tenthClassDocument of every student with a document
+    @Query("SELECT s.id, s.tenthClassDocument FROM Student s WHERE s.tenthClassDocument IS NOT NULL")
+    List<Object[]> findDocumentRows();
+
+    @Modifying
+    @Query("UPDATE Student s SET s.tenthClassDocument = :document WHERE s.id = :id")
+    int setTenthClassDocument(@Param("id") Long id, @Param("document") String document);
+
+    // Documents that have no derivatives yet, in name order after "after"
+    @Query("SELECT DISTINCT s.tenthClassDocument FROM Student s WHERE s.tenthClassDocument > :after "
+            + "AND s.tenthClassDocumentThumbnail IS NULL ORDER BY s.tenthClassDocument")
+    List<String> findDocumentsWithoutThumbnail(@Param("after") String after, Pageable pageable);
+
+    // Every student with this document shares its derivatives
+    @Modifying
+    @Query("UPDATE Student s SET s.tenthClassDocumentPreview = :preview, s.tenthClassDocumentThumbnail = :thumbnail "
+            + "WHERE s.tenthClassDocument = :document")
+    int setDocumentDerivatives(@Param("document") String document, @Param("preview") String preview,
+            @Param("thumbnail") String thumbnail);
+
+    // Keyset pages of id, tenthClassDocument, tenthClassDocumentPreview, tenthClassDocumentThumbnail
+    @Query("SELECT s.id, s.tenthClassDocument, s.tenthClassDocumentPreview, s.tenthClassDocumentThumbnail "
+            + "FROM Student s WHERE s.tenthClassDocument IS NOT NULL AND s.id > :afterId ORDER BY s.id")
+    List<Object[]> findDocumentRowsAfter(@Param("afterId") long afterId, Pageable pageable);
+
+    long countByTenthClassDocumentIsNotNull();
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("SELECT DISTINCT s.tenthClassDocument FROM Student s WHERE s.tenthClassDocument IS NOT NULL")
+    Stream<String> streamDistinctDocuments();
+
+    @Modifying
+    @Query("UPDATE Student s SET s.tenthClassDocumentPreview = NULL, s.tenthClassDocumentThumbnail = NULL "
+            + "WHERE s.id IN :ids")
+    int clearDocumentDerivatives(@Param("ids") Collection<Long> ids);
+
+    // The batch memberships; the join table is not covered by a JPQL delete of Student
+    @Modifying
+    @Query(value = "DELETE FROM student_batch WHERE student_id IN :ids", nativeQuery = true)
+    int deleteBatchLinks(@Param("ids") Collection<Long> ids);
+
+    @Modifying
+    @Query("DELETE FROM Student s WHERE s.id IN :ids")
+    int deleteByIds(@Param("ids") Collection<Long> ids);
+
+    // Export cursors: rows are read as they are written out, never collected
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query(StudentListItem.SELECT + " WHERE s.remainingAmount > 0 ORDER BY s.admissionDate, s.id")
+    Stream<StudentListItem> streamPendingFeeItems();
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query(StudentListItem.SELECT + " WHERE s.remainingAmount > 0 AND s.admissionDate >= :from "
+            + "AND s.admissionDate < :to ORDER BY s.admissionDate, s.id")
+    Stream<StudentListItem> streamPendingFeeItemsAdmittedBetween(@Param("from") LocalDate from,
+            @Param("to") LocalDate to);
+
+    // Admitted in [from, to)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query(StudentListItem.SELECT + " WHERE s.admissionDate >= :from AND s.admissionDate < :to "
+            + "ORDER BY s.admissionDate, s.id")
+    Stream<StudentListItem> streamListItemsAdmittedBetween(@Param("from") LocalDate from, @Param("to") LocalDate to);
+
+    @Query("SELECT COALESCE(SUM(s.remainingAmount), 0) FROM Student s")
+    BigDecimal sumRemainingAmount();
+
+    // id, name, email, phoneNumber for every student, for the search index
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("SELECT s.id, s.name, s.email, s.phoneNumber FROM Student s")
+    Stream<Object[]> streamSearchRows();
+
+    // Admissions per month in [from, to)
+    @Query("SELECT YEAR(s.admissionDate) AS year, MONTH(s.admissionDate) AS month, COUNT(s) AS total "
+            + "FROM Student s WHERE s.admissionDate >= :from AND s.admissionDate < :to "
+            + "GROUP BY YEAR(s.admissionDate), MONTH(s.admissionDate)")
+    List<MonthlyTotal> countAdmissionsByMonth(@Param("from") LocalDate from, @Param("to") LocalDate to);
+
+    // Admissions per day in [from, to)
+    @Query("SELECT YEAR(s.admissionDate) AS year, MONTH(s.admissionDate) AS month, DAY(s.admissionDate) AS day, "
+            + "COUNT(s) AS total FROM Student s WHERE s.admissionDate >= :from AND s.admissionDate < :to "
+            + "GROUP BY YEAR(s.admissionDate), MONTH(s.admissionDate), DAY(s.admissionDate)")
+    List<DailyTotal> countAdmissionsByDay(@Param("from") LocalDate from, @Param("to") LocalDate to);
+
+    @Query("SELECT s.courses AS label, COUNT(s) AS total FROM Student s WHERE s.courses IS NOT NULL GROUP BY s.courses")
+    List<LabelTotal> countByCourse();
+
+    // Newest admissions first; the page size is the LIMIT
+    @Query("SELECT s FROM Student s WHERE s.admissionDate IS NOT NULL ORDER BY s.admissionDate DESC, s.id DESC")
+    List<Student> findLatestAdmissions(Pageable pageable);
+
+    // List views: one select of the scalar columns, no batches
+    @Query(StudentListItem.SELECT)
+    List<StudentListItem> findListItems();
+
+    @Query(value = StudentListItem.SELECT, countQuery = "SELECT COUNT(s) FROM Student s")
+    Page<StudentListItem> findListItems(Pageable pageable);
+
+    @Query(StudentListItem.SELECT + " JOIN s.batches b WHERE b.id = :batchId")
+    List<StudentListItem> findListItemsByBatchId(@Param("batchId") Long batchId);
+
+    // Keyset paging by id
+    @Query(StudentListItem.SELECT + " WHERE s.id > :id ORDER BY s.id ASC")
+    List<StudentListItem> findListItemsAfterId(@Param("id") long id, Pageable pageable);
+
+    @Query(StudentListItem.SELECT + " WHERE s.id < :id ORDER BY s.id DESC")
+    List<StudentListItem> findListItemsBeforeId(@Param("id") long id, Pageable pageable);
+
+    // Keyset paging by (admissionDate, id); students without an admission date are left out
+    @Query(StudentListItem.SELECT + " WHERE s.admissionDate IS NOT NULL ORDER BY s.admissionDate ASC, s.id ASC")
+    List<StudentListItem> findListItemsByAdmissionAsc(Pageable pageable);
+
+    @Query(StudentListItem.SELECT + " WHERE s.admissionDate > :date OR (s.admissionDate = :date AND s.id > :id) "
+            + "ORDER BY s.admissionDate ASC, s.id ASC")
+    List<StudentListItem> findListItemsAdmittedAfter(@Param("date") LocalDate date, @Param("id") long id,
+            Pageable pageable);
+
+    @Query(StudentListItem.SELECT + " WHERE s.admissionDate IS NOT NULL ORDER BY s.admissionDate DESC, s.id DESC")
+    List<StudentListItem> findListItemsByAdmissionDesc(Pageable pageable);
+
+    @Query(StudentListItem.SELECT + " WHERE s.admissionDate < :date OR (s.admissionDate = :date AND s.id < :id) "
+            + "ORDER BY s.admissionDate DESC, s.id DESC")
+    List<StudentListItem> findListItemsAdmittedBefore(@Param("date") LocalDate date, @Param("id") long id,
+            Pageable pageable);
+
+    // Keyset continuation of findLatestAdmissions after (date, id)
+    @Query("SELECT s FROM Student s WHERE s.admissionDate < :date OR (s.admissionDate = :date AND s.id < :id) "
+            + "ORDER BY s.admissionDate DESC, s.id DESC")
+    List<Student> findAdmissionsBefore(@Param("date") LocalDate date, @Param("id") long id, Pageable pageable);
 } 
\ No newline at end of file
@@ -0,0 +1,170 @@
+package com.example.studentmanagement.service;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.temporal.IsoFields;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import com.example.studentmanagement.repository.DailyTotal;
+import com.example.studentmanagement.repository.EnquiryRepository;
+import com.example.studentmanagement.repository.MonthlyTotal;
+import com.example.studentmanagement.repository.StudentRepository;
+import com.example.studentmanagement.service.DataChangedEvent.DataSet;
+
+/**
+ * Any metric over any date range, in calendar buckets. Counts come from one
+ * grouped query on an indexed date column, by day for day and week buckets
+ * and by month otherwise; revenue is read from the revenue index. Buckets
+ * with no rows are filled with zero.
+ */
+@Service
+public class AnalyticsService {
+
+    public static final Set<String> METRICS = Set.of("admissions", "revenue", "enquiries", "conversions");
+    public static final Set<String> GRANULARITIES = Set.of("day", "week", "month", "quarter", "year");
+    public static final int MAX_BUCKETS = 5000;
+
+    @Autowired
+    private StudentRepository studentRepository;
+
+    @Autowired
+    private EnquiryRepository enquiryRepository;
+
+    @Autowired
+    private RevenueIndex revenueIndex;
+
+    // Conversions are counted against the date of the enquiry that converted
+    public static DataSet dataSetOf(String metric) {
+        switch (metric) {
+            case "admissions":
+                return DataSet.STUDENTS;
+            case "revenue":
+                return DataSet.PAYMENTS;
+            default:
+                return DataSet.ENQUIRIES;
+        }
+    }
+
+    // Throws IllegalArgumentException for an unknown metric or granularity, or too many buckets
+    public Map<String, Object> getSeries(String metric, LocalDate from, LocalDate to, String granularity) {
+        if (!METRICS.contains(metric)) {
+            throw new IllegalArgumentException("Unknown metric: " + metric);
+        }
+        if (!GRANULARITIES.contains(granularity)) {
+            throw new IllegalArgumentException("Unsupported granularity: " + granularity);
+        }
+        if (to.isBefore(from)) {
+            throw new IllegalArgumentException("to must not be before from");
+        }
+
+        // Buckets cover from..to, the first and last clipped to the range
+        List<LocalDate[]> ranges = new ArrayList<>();
+        TreeMap<LocalDate, Integer> bucketByStart = new TreeMap<>();
+        for (LocalDate start = from; !start.isAfter(to); ) {
+            LocalDate end = RevenueIndex.bucketEnd(start, granularity);
+            if (end.isAfter(to)) {
+                end = to;
+            }
+            bucketByStart.put(start, ranges.size());
+            ranges.add(new LocalDate[] {start, end});
+            if (ranges.size() > MAX_BUCKETS) {
+                throw new IllegalArgumentException("More than " + MAX_BUCKETS + " buckets; use a coarser granularity");
+            }
+            start = end.plusDays(1);
+        }
+
+        double[] values = new double[ranges.size()];
+        if (metric.equals("revenue")) {
+            for (int i = 0; i < ranges.size(); i++) {
+                values[i] = revenueIndex.getRevenue(ranges.get(i)[0], ranges.get(i)[1]);
+            }
+        } else if (granularity.equals("day") || granularity.equals("week")) {
+            for (DailyTotal row : countByDay(metric, from, to.plusDays(1))) {
+                values[bucketByStart.floorEntry(row.toDate()).getValue()] += row.getTotal().doubleValue();
+            }
+        } else {
+            for (MonthlyTotal row : countByMonth(metric, from, to.plusDays(1))) {
+                // A month cut by the range starts its bucket at from
+                LocalDate firstDay = row.toYearMonth().atDay(1);
+                LocalDate day = firstDay.isBefore(from) ? from : firstDay;
+                values[bucketByStart.floorEntry(day).getValue()] += row.getTotal().doubleValue();
+            }
+        }
+
+        List<String> labels = new ArrayList<>();
+        List<Object> data = new ArrayList<>();
+        List<Map<String, Object>> buckets = new ArrayList<>();
+        double total = 0;
+        for (int i = 0; i < ranges.size(); i++) {
+            Object value = metric.equals("revenue") ? (Object) values[i] : (Object) (long) values[i];
+            Map<String, Object> bucket = new HashMap<>();
+            bucket.put("key", keyOf(ranges.get(i)[0], granularity));
+            bucket.put("start", ranges.get(i)[0]);
+            bucket.put("end", ranges.get(i)[1]);
+            bucket.put("value", value);
+            buckets.add(bucket);
+            labels.add(keyOf(ranges.get(i)[0], granularity));
+            data.add(value);
+            total += values[i];
+        }
+
+        Map<String, Object> result = new HashMap<>();
+        result.put("metric", metric);
+        result.put("from", from);
+        result.put("to", to);
+        result.put("granularity", granularity);
+        result.put("total", metric.equals("revenue") ? (Object) total : (Object) (long) total);
+        result.put("labels", labels);
+        result.put("data", data);
+        result.put("buckets", buckets);
+        return result;
+    }
+
+    // Rows for [from, to)
+    private List<DailyTotal> countByDay(String metric, LocalDate from, LocalDate to) {
+        switch (metric) {
+            case "admissions":
+                return studentRepository.countAdmissionsByDay(from, to);
+            case "enquiries":
+                return enquiryRepository.countEnquiriesByDay(from, to);
+            default:
+                return enquiryRepository.countConversionsByDay(from, to);
+        }
+    }
+
+    private List<MonthlyTotal> countByMonth(String metric, LocalDate from, LocalDate to) {
+        switch (metric) {
+            case "admissions":
+                return studentRepository.countAdmissionsByMonth(from, to);
+            case "enquiries":
+                return enquiryRepository.countEnquiriesByMonth(from, to);
+            default:
+                return enquiryRepository.countConversionsByMonth(from, to);
+        }
+    }
+
+    // 2026-10-18, 2026-W42, 2026-10, 2026-Q4, 2026
+    private static String keyOf(LocalDate start, String granularity) {
+        switch (granularity) {
+            case "week":
+                return start.get(IsoFields.WEEK_BASED_YEAR) + "-W"
+                        + String.format("%02d", start.get(IsoFields.WEEK_OF_WEEK_BASED_YEAR));
+            case "month":
+                return YearMonth.from(start).toString();
+            case "quarter":
+                return start.getYear() + "-Q" + start.get(IsoFields.QUARTER_OF_YEAR);
+            case "year":
+                return String.valueOf(start.getYear());
+            default:
+                return start.toString();
+        }
+    }
+}
@@ -4,7 +4,9 @@ import com.example.studentmanagement.model.Certificate;
 import com.example.studentmanagement.model.Student;
 import com.example.studentmanagement.repository.CertificateRepository;
 import com.example.studentmanagement.repository.StudentRepository;
+import com.example.studentmanagement.service.DataChangedEvent.DataSet;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDate;
@@ -20,6 +22,9 @@ public class CertificateService {
     @Autowired
     private StudentRepository studentRepository;
 
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
     public List<Certificate> getAllCertificates() {
         return certificateRepository.findAll();
     }
@@ -55,6 +60,7 @@ public class CertificateService {
             // with the registration number stored in the certificate itself.
             
             Certificate savedCertificate = certificateRepository.save(certificate);
+            eventPublisher.publishEvent(new DataChangedEvent(DataSet.CERTIFICATES));
             System.out.println("Certificate saved successfully with ID: " + savedCertificate.getId());
             return savedCertificate;
         } catch (Exception e) {
@@ -90,13 +96,16 @@ public class CertificateService {
             existingCertificate.setMothersName(certificateDetails.getMothersName());
             existingCertificate.setDateOfBirth(certificateDetails.getDateOfBirth());
             
-            return certificateRepository.save(existingCertificate);
+            Certificate saved = certificateRepository.save(existingCertificate);
+            eventPublisher.publishEvent(new DataChangedEvent(DataSet.CERTIFICATES));
+            return saved;
         }
         return null;
     }
 
     public void deleteCertificate(Long id) {
         certificateRepository.deleteById(id);
+        eventPublisher.publishEvent(new DataChangedEvent(DataSet.CERTIFICATES));
     }
 
     public List<Certificate> getCertificatesByStudentId(Long studentId) {
@@ -0,0 +1,143 @@
+package com.example.studentmanagement.service;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import com.example.studentmanagement.model.Enquiry;
+import com.example.studentmanagement.model.Student;
+import com.example.studentmanagement.repository.EnquiryRepository;
+import com.example.studentmanagement.repository.StudentRepository;
+
+/**
+ * Running per-month totals behind the dashboard KPIs. Loaded once at startup
+ * and then kept current by the student and enquiry services, so the KPI
+ * endpoint never has to scan the tables. Revenue lives in {@link RevenueIndex}.
+ */
+@Component
+public class DashboardAggregateStore {
+
+    @Autowired
+    private StudentRepository studentRepository;
+
+    @Autowired
+    private EnquiryRepository enquiryRepository;
+
+    private final AtomicLong totalStudents = new AtomicLong();
+    private final AtomicReference<BigDecimal> pendingFees = new AtomicReference<>(BigDecimal.ZERO);
+    // Plain SUM(remainingAmount), negatives included, as the total-pending report has always shown it
+    private final AtomicReference<BigDecimal> remainingTotal = new AtomicReference<>(BigDecimal.ZERO);
+    private final Map<YearMonth, Long> admissionsByMonth = new ConcurrentHashMap<>();
+    private final Map<YearMonth, Long> enquiriesByMonth = new ConcurrentHashMap<>();
+
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void rebuild() {
+        totalStudents.set(0);
+        pendingFees.set(BigDecimal.ZERO);
+        remainingTotal.set(BigDecimal.ZERO);
+        admissionsByMonth.clear();
+        enquiriesByMonth.clear();
+
+        for (Object[] row : studentRepository.findAggregateRows()) {
+            apply(StudentFacts.of((LocalDate) row[0], (BigDecimal) row[1], (BigDecimal) row[2], (BigDecimal) row[3]), 1);
+        }
+        for (LocalDate date : enquiryRepository.findAllEnquiryDates()) {
+            apply(new EnquiryFacts(date), 1);
+        }
+        System.out.println("Dashboard aggregates loaded: " + totalStudents.get() + " students");
+    }
+
+    // Snapshots of the fields the aggregates depend on. Taken before an entity
+    // is modified so that the old contribution can be backed out afterwards.
+    public record StudentFacts(LocalDate admissionDate, BigDecimal pendingFee, BigDecimal remainingAmount) {
+        public static StudentFacts of(Student student) {
+            return student == null ? null
+                    : of(student.getAdmissionDate(), student.getTotalCourseFee(), student.getPaidAmount(),
+                            student.getRemainingAmount());
+        }
+
+        public static StudentFacts of(LocalDate admissionDate, BigDecimal totalCourseFee, BigDecimal paidAmount,
+                BigDecimal remainingAmount) {
+            return new StudentFacts(admissionDate, pending(totalCourseFee, paidAmount),
+                    remainingAmount != null ? remainingAmount : BigDecimal.ZERO);
+        }
+    }
+
+    public record EnquiryFacts(LocalDate dateOfEnquiry) {
+        public static EnquiryFacts of(Enquiry enquiry) {
+            return enquiry == null ? null : new EnquiryFacts(enquiry.getDateOfEnquiry());
+        }
+    }
+
+    // A null "before" means the row was created, a null "after" that it was deleted.
+    public void studentChanged(StudentFacts before, StudentFacts after) {
+        TransactionHooks.afterCommit(() -> {
+            apply(before, -1);
+            apply(after, 1);
+        });
+    }
+
+    public void enquiryChanged(EnquiryFacts before, EnquiryFacts after) {
+        TransactionHooks.afterCommit(() -> {
+            apply(before, -1);
+            apply(after, 1);
+        });
+    }
+
+    public long getTotalStudents() {
+        return totalStudents.get();
+    }
+
+    public double getPendingFees() {
+        return pendingFees.get().doubleValue();
+    }
+
+    public BigDecimal getRemainingTotal() {
+        return remainingTotal.get();
+    }
+
+    public long getAdmissions(YearMonth month) {
+        return admissionsByMonth.getOrDefault(month, 0L);
+    }
+
+    public long getEnquiries(YearMonth month) {
+        return enquiriesByMonth.getOrDefault(month, 0L);
+    }
+
+    private void apply(StudentFacts facts, int sign) {
+        if (facts == null) {
+            return;
+        }
+        totalStudents.addAndGet(sign);
+        if (facts.admissionDate() != null) {
+            admissionsByMonth.merge(YearMonth.from(facts.admissionDate()), (long) sign, Long::sum);
+        }
+        BigDecimal delta = sign > 0 ? facts.pendingFee() : facts.pendingFee().negate();
+        pendingFees.accumulateAndGet(delta, BigDecimal::add);
+        BigDecimal remainingDelta = sign > 0 ? facts.remainingAmount() : facts.remainingAmount().negate();
+        remainingTotal.accumulateAndGet(remainingDelta, BigDecimal::add);
+    }
+
+    private void apply(EnquiryFacts facts, int sign) {
+        if (facts == null || facts.dateOfEnquiry() == null) {
+            return;
+        }
+        enquiriesByMonth.merge(YearMonth.from(facts.dateOfEnquiry()), (long) sign, Long::sum);
+    }
+
+    // Pending fee as the dashboard has always shown it: never below zero
+    private static BigDecimal pending(BigDecimal total, BigDecimal paid) {
+        BigDecimal pending = (total != null ? total : BigDecimal.ZERO)
+                .subtract(paid != null ? paid : BigDecimal.ZERO);
+        return pending.signum() > 0 ? pending : BigDecimal.ZERO;
+    }
+}
@@ -6,20 +6,38 @@ import com.example.studentmanagement.model.Enquiry;
 import com.example.studentmanagement.repository.StudentRepository;
 import com.example.studentmanagement.repository.PaymentRepository;
 import com.example.studentmanagement.repository.EnquiryRepository;
+import com.example.studentmanagement.repository.DailyTotal;
+import com.example.studentmanagement.repository.LabelTotal;
+import com.example.studentmanagement.repository.MonthlyTotal;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 
 import java.math.BigDecimal;
+import java.math.RoundingMode;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.Duration;
+import java.time.YearMonth;
 import java.time.format.DateTimeFormatter;
 import java.util.*;
-import java.util.stream.Collectors;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import jakarta.annotation.PreDestroy;
 
 @Service
 public class DashboardService {
 
+    // Recent-activity ties on timestamp are broken by source, then by newest id
+    private static final int STUDENT_RANK = 0;
+    private static final int PAYMENT_RANK = 1;
+    private static final int ENQUIRY_RANK = 2;
+
     @Autowired
     private StudentRepository studentRepository;
 
@@ -29,30 +47,31 @@ public class DashboardService {
     @Autowired
     private EnquiryRepository enquiryRepository;
 
+    @Autowired
+    private DashboardAggregateStore aggregateStore;
+
+    @Autowired
+    private RevenueIndex revenueIndex;
+
+    // Bounded pool for the summary fan-out; when saturated the request thread does the work
+    private final ExecutorService summaryExecutor = new ThreadPoolExecutor(6, 6, 60, TimeUnit.SECONDS,
+            new ArrayBlockingQueue<>(60), r -> {
+                Thread thread = new Thread(r, "dashboard-summary");
+                thread.setDaemon(true);
+                return thread;
+            }, new ThreadPoolExecutor.CallerRunsPolicy());
+
     public Map<String, Object> getDashboardKPIs() {
         Map<String, Object> kpis = new HashMap<>();
 
-        // Get all data
-        List<Student> students = studentRepository.findAll();
-        List<Payment> payments = paymentRepository.findAll();
-        List<Enquiry> enquiries = enquiryRepository.findAll();
-
-        // Calculate current month data
-        LocalDate now = LocalDate.now();
-        LocalDate startOfMonth = now.withDayOfMonth(1);
-        LocalDate startOfLastMonth = startOfMonth.minusMonths(1);
+        // All figures come from the maintained aggregates, not the tables
+        YearMonth thisMonth = YearMonth.now();
+        YearMonth lastMonth = thisMonth.minusMonths(1);
 
         // Total Students
-        int totalStudents = students.size();
-        long studentsThisMonth = students.stream()
-                .filter(s -> s.getAdmissionDate() != null &&
-                        s.getAdmissionDate().isAfter(startOfMonth.minusDays(1)))
-                .count();
-        long studentsLastMonth = students.stream()
-                .filter(s -> s.getAdmissionDate() != null &&
-                        s.getAdmissionDate().isAfter(startOfLastMonth.minusDays(1)) &&
-                        s.getAdmissionDate().isBefore(startOfMonth))
-                .count();
+        long totalStudents = aggregateStore.getTotalStudents();
+        long studentsThisMonth = aggregateStore.getAdmissions(thisMonth);
+        long studentsLastMonth = aggregateStore.getAdmissions(lastMonth);
 
         Map<String, Object> totalStudentsKPI = new HashMap<>();
         totalStudentsKPI.put("count", totalStudents);
@@ -61,20 +80,8 @@ public class DashboardService {
         kpis.put("totalStudents", totalStudentsKPI);
 
         // Monthly Revenue
-        Double monthlyRevenue = payments.stream()
-                .filter(p -> p.getPaymentDate() != null &&
-                        p.getPaymentDate().toLocalDate().isAfter(startOfMonth.minusDays(1)))
-                .map(Payment::getAmount)
-                .filter(Objects::nonNull)
-                .reduce(0.0, Double::sum);
-
-        Double lastMonthRevenue = payments.stream()
-                .filter(p -> p.getPaymentDate() != null &&
-                        p.getPaymentDate().toLocalDate().isAfter(startOfLastMonth.minusDays(1)) &&
-                        p.getPaymentDate().toLocalDate().isBefore(startOfMonth))
-                .map(Payment::getAmount)
-                .filter(Objects::nonNull)
-                .reduce(0.0, Double::sum);
+        double monthlyRevenue = revenueIndex.getRevenue(thisMonth.atDay(1), thisMonth.atEndOfMonth());
+        double lastMonthRevenue = revenueIndex.getRevenue(lastMonth.atDay(1), lastMonth.atEndOfMonth());
 
         Map<String, Object> monthlyRevenueKPI = new HashMap<>();
         monthlyRevenueKPI.put("amount", monthlyRevenue);
@@ -83,14 +90,7 @@ public class DashboardService {
         kpis.put("monthlyRevenue", monthlyRevenueKPI);
 
         // Pending Fees
-        Double pendingFees = students.stream()
-                .map(s -> {
-                    BigDecimal total = s.getTotalCourseFee() != null ? s.getTotalCourseFee() : BigDecimal.ZERO;
-                    BigDecimal paid = s.getPaidAmount() != null ? s.getPaidAmount() : BigDecimal.ZERO;
-                    BigDecimal pending = total.subtract(paid);
-                    return pending.compareTo(BigDecimal.ZERO) > 0 ? pending.doubleValue() : 0.0;
-                })
-                .reduce(0.0, Double::sum);
+        double pendingFees = aggregateStore.getPendingFees();
 
         Map<String, Object> pendingFeesKPI = new HashMap<>();
         pendingFeesKPI.put("amount", pendingFees);
@@ -99,16 +99,8 @@ public class DashboardService {
         kpis.put("pendingFees", pendingFeesKPI);
 
         // New Enquiries
-        long newEnquiries = enquiries.stream()
-                .filter(e -> e.getDateOfEnquiry() != null &&
-                        e.getDateOfEnquiry().isAfter(startOfMonth.minusDays(1)))
-                .count();
-
-        long lastMonthEnquiries = enquiries.stream()
-                .filter(e -> e.getDateOfEnquiry() != null &&
-                        e.getDateOfEnquiry().isAfter(startOfLastMonth.minusDays(1)) &&
-                        e.getDateOfEnquiry().isBefore(startOfMonth))
-                .count();
+        long newEnquiries = aggregateStore.getEnquiries(thisMonth);
+        long lastMonthEnquiries = aggregateStore.getEnquiries(lastMonth);
 
         Map<String, Object> newEnquiriesKPI = new HashMap<>();
         newEnquiriesKPI.put("count", newEnquiries);
@@ -120,22 +112,21 @@ public class DashboardService {
     }
 
     public Map<String, Object> getEnrollmentTrend(int period) {
-        List<Student> students = studentRepository.findAll();
         LocalDate endDate = LocalDate.now();
         LocalDate startDate = endDate.minusDays(period - 1);
 
+        // One grouped query for the whole window
+        Map<LocalDate, Long> dailyCounts = new HashMap<>();
+        for (DailyTotal row : studentRepository.countAdmissionsByDay(startDate, endDate.plusDays(1))) {
+            dailyCounts.put(row.toDate(), row.getTotal().longValue());
+        }
+
         List<String> labels = new ArrayList<>();
         List<Integer> data = new ArrayList<>();
 
         for (LocalDate date = startDate; !date.isAfter(endDate); date = date.plusDays(1)) {
             labels.add(date.format(DateTimeFormatter.ofPattern("MMM dd")));
-
-            final LocalDate currentDate = date;
-            int count = (int) students.stream()
-                    .filter(s -> s.getAdmissionDate() != null &&
-                            s.getAdmissionDate().equals(currentDate))
-                    .count();
-            data.add(count);
+            data.add(dailyCounts.getOrDefault(date, 0L).intValue());
         }
 
         Map<String, Object> result = new HashMap<>();
@@ -145,54 +136,32 @@ public class DashboardService {
     }
 
     public Map<String, Object> getRevenueOverview(String period) {
-        List<Payment> payments = paymentRepository.findAll();
         List<String> labels = new ArrayList<>();
         List<Double> data = new ArrayList<>();
+        LocalDate today = LocalDate.now();
 
+        // Every bucket is a range lookup on the revenue index
         if ("monthly".equals(period)) {
             // Last 6 months
             for (int i = 5; i >= 0; i--) {
-                LocalDate date = LocalDate.now().minusMonths(i);
-                labels.add(date.format(DateTimeFormatter.ofPattern("MMM")));
-
-                Double monthlyTotal = payments.stream()
-                        .filter(p -> p.getPaymentDate() != null &&
-                                p.getPaymentDate().toLocalDate().getMonth() == date.getMonth() &&
-                                p.getPaymentDate().toLocalDate().getYear() == date.getYear())
-                        .map(Payment::getAmount)
-                        .filter(Objects::nonNull)
-                        .reduce(0.0, Double::sum);
-                data.add(monthlyTotal);
+                YearMonth month = YearMonth.from(today).minusMonths(i);
+                labels.add(month.format(DateTimeFormatter.ofPattern("MMM")));
+                data.add(revenueIndex.getRevenue(month.atDay(1), month.atEndOfMonth()));
             }
         } else if ("weekly".equals(period)) {
-            // Last 8 weeks
+            // Last 8 weeks, each a 7-day window ending on the same weekday as today
             for (int i = 7; i >= 0; i--) {
-                LocalDate endDate = LocalDate.now().minusWeeks(i);
+                LocalDate endDate = today.minusWeeks(i);
                 LocalDate startDate = endDate.minusDays(6);
                 labels.add("Week " + (8 - i));
-
-                Double weeklyTotal = payments.stream()
-                        .filter(p -> p.getPaymentDate() != null &&
-                                !p.getPaymentDate().toLocalDate().isBefore(startDate) &&
-                                !p.getPaymentDate().toLocalDate().isAfter(endDate))
-                        .map(Payment::getAmount)
-                        .filter(Objects::nonNull)
-                        .reduce(0.0, Double::sum);
-                data.add(weeklyTotal);
+                data.add(revenueIndex.getRevenue(startDate, endDate));
             }
         } else if ("daily".equals(period)) {
             // Last 7 days
             for (int i = 6; i >= 0; i--) {
-                LocalDate date = LocalDate.now().minusDays(i);
+                LocalDate date = today.minusDays(i);
                 labels.add(date.format(DateTimeFormatter.ofPattern("EEE")));
-
-                Double dailyTotal = payments.stream()
-                        .filter(p -> p.getPaymentDate() != null &&
-                                p.getPaymentDate().toLocalDate().equals(date))
-                        .map(Payment::getAmount)
-                        .filter(Objects::nonNull)
-                        .reduce(0.0, Double::sum);
-                data.add(dailyTotal);
+                data.add(revenueIndex.getRevenue(date, date));
             }
         }
 
@@ -203,33 +172,34 @@ public class DashboardService {
     }
 
     public Map<String, Object> getRecentActivity(int limit) {
-        List<Map<String, Object>> activities = new ArrayList<>();
+        return getRecentActivity(limit, null);
+    }
 
-        // Get recent students
-        List<Student> recentStudents = studentRepository.findAll().stream()
-                .filter(s -> s.getAdmissionDate() != null)
-                .sorted((a, b) -> b.getAdmissionDate().compareTo(a.getAdmissionDate()))
-                .limit(3)
-                .collect(Collectors.toList());
+    // Newest-first activity feed; "before" is the nextCursor of a previous page
+    public Map<String, Object> getRecentActivity(int limit, String before) {
+        ActivityCursor cursor = before == null || before.isBlank() ? null : ActivityCursor.parse(before);
+        Pageable page = PageRequest.of(0, limit);
 
+        // Each source contributes at most "limit" rows, already in feed order
+        List<ActivityEntry> students = new ArrayList<>();
+        List<Student> recentStudents = cursor == null
+                ? studentRepository.findLatestAdmissions(page)
+                : studentRepository.findAdmissionsBefore(cursor.dateBound(), cursor.dateIdBound(STUDENT_RANK), page);
         for (Student student : recentStudents) {
             Map<String, Object> activity = new HashMap<>();
             activity.put("id", student.getId());
             activity.put("type", "student");
             activity.put("title", "New student enrolled");
             activity.put("description", student.getName() + " enrolled in " + student.getCourses());
-            activity.put("time", getTimeAgo(student.getAdmissionDate().atStartOfDay()));
             activity.put("icon", "fa-user-plus");
-            activities.add(activity);
+            students.add(new ActivityEntry(student.getAdmissionDate().atStartOfDay(), STUDENT_RANK,
+                    student.getId(), activity));
         }
 
-        // Get recent payments
-        List<Payment> recentPayments = paymentRepository.findAll().stream()
-                .filter(p -> p.getPaymentDate() != null)
-                .sorted((a, b) -> b.getPaymentDate().compareTo(a.getPaymentDate()))
-                .limit(3)
-                .collect(Collectors.toList());
-
+        List<ActivityEntry> payments = new ArrayList<>();
+        List<Payment> recentPayments = cursor == null
+                ? paymentRepository.findLatestPayments(page)
+                : paymentRepository.findPaymentsBefore(cursor.timestamp(), cursor.idBound(PAYMENT_RANK), page);
         for (Payment payment : recentPayments) {
             Map<String, Object> activity = new HashMap<>();
             activity.put("id", payment.getId());
@@ -237,65 +207,234 @@ public class DashboardService {
             activity.put("title", "Payment received");
             activity.put("description", "₹" + payment.getAmount() + " from " +
                     (payment.getStudent() != null ? payment.getStudent().getName() : "Unknown"));
-            activity.put("time", getTimeAgo(payment.getPaymentDate()));
             activity.put("icon", "fa-money-bill-wave");
-            activities.add(activity);
+            payments.add(new ActivityEntry(payment.getPaymentDate(), PAYMENT_RANK, payment.getId(), activity));
         }
 
-        // Get recent enquiries
-        List<Enquiry> recentEnquiries = enquiryRepository.findAll().stream()
-                .filter(e -> e.getDateOfEnquiry() != null)
-                .sorted((a, b) -> b.getDateOfEnquiry().compareTo(a.getDateOfEnquiry()))
-                .limit(2)
-                .collect(Collectors.toList());
-
+        List<ActivityEntry> enquiries = new ArrayList<>();
+        List<Enquiry> recentEnquiries = cursor == null
+                ? enquiryRepository.findLatestEnquiries(page)
+                : enquiryRepository.findEnquiriesBefore(cursor.dateBound(), cursor.dateIdBound(ENQUIRY_RANK), page);
         for (Enquiry enquiry : recentEnquiries) {
             Map<String, Object> activity = new HashMap<>();
             activity.put("id", enquiry.getId());
             activity.put("type", "enquiry");
             activity.put("title", "New enquiry");
             activity.put("description", enquiry.getName() + " interested in " + enquiry.getCourse());
-            activity.put("time", getTimeAgo(enquiry.getDateOfEnquiry().atStartOfDay()));
             activity.put("icon", "fa-phone");
-            activities.add(activity);
+            enquiries.add(new ActivityEntry(enquiry.getDateOfEnquiry().atStartOfDay(), ENQUIRY_RANK,
+                    enquiry.getId(), activity));
         }
 
-        // Sort all activities by time and limit
-        activities.sort((a, b) -> {
-            // This is a simplified sort - in real implementation, you'd sort by actual
-            // timestamp
-            return 0;
-        });
+        // k-way merge of the three sorted lists, stopping at the limit
+        List<List<ActivityEntry>> sources = List.of(students, payments, enquiries);
+        int[] positions = new int[sources.size()];
+        List<Map<String, Object>> activities = new ArrayList<>();
+        ActivityEntry last = null;
+        while (activities.size() < limit) {
+            int next = -1;
+            for (int i = 0; i < sources.size(); i++) {
+                if (positions[i] < sources.get(i).size() && (next < 0 || sources.get(i).get(positions[i])
+                        .comesBefore(sources.get(next).get(positions[next])))) {
+                    next = i;
+                }
+            }
+            if (next < 0) {
+                break;
+            }
+            last = sources.get(next).get(positions[next]++);
+            last.activity().put("timestamp", last.timestamp());
+            last.activity().put("time", getTimeAgo(last.timestamp()));
+            activities.add(last.activity());
+        }
 
         Map<String, Object> result = new HashMap<>();
-        result.put("activities", activities.stream().limit(limit).collect(Collectors.toList()));
+        result.put("activities", activities);
+        result.put("nextCursor", activities.size() == limit ? ActivityCursor.of(last).toString() : null);
         return result;
     }
 
+    private record ActivityEntry(LocalDateTime timestamp, int rank, long id, Map<String, Object> activity) {
+        boolean comesBefore(ActivityEntry other) {
+            int byTime = other.timestamp.compareTo(timestamp);
+            if (byTime != 0) {
+                return byTime < 0;
+            }
+            return rank != other.rank ? rank < other.rank : id > other.id;
+        }
+    }
+
+    // Position of the last activity on a page, serialized as "timestamp~rank~id"
+    private record ActivityCursor(LocalDateTime timestamp, int rank, long id) {
+        static ActivityCursor of(ActivityEntry entry) {
+            return new ActivityCursor(entry.timestamp(), entry.rank(), entry.id());
+        }
+
+        static ActivityCursor parse(String value) {
+            String[] parts = value.split("~");
+            if (parts.length != 3) {
+                throw new IllegalArgumentException("Invalid activity cursor: " + value);
+            }
+            try {
+                return new ActivityCursor(LocalDateTime.parse(parts[0]), Integer.parseInt(parts[1]),
+                        Long.parseLong(parts[2]));
+            } catch (RuntimeException e) {
+                throw new IllegalArgumentException("Invalid activity cursor: " + value);
+            }
+        }
+
+        // Rows of a source at exactly the cursor timestamp that still come after the cursor
+        long idBound(int sourceRank) {
+            if (sourceRank == rank) {
+                return id;
+            }
+            return sourceRank > rank ? Long.MAX_VALUE : Long.MIN_VALUE;
+        }
+
+        // Date-only sources sit at midnight: a cursor later in the day includes that whole day
+        LocalDate dateBound() {
+            return isMidnight() ? timestamp.toLocalDate() : timestamp.toLocalDate().plusDays(1);
+        }
+
+        long dateIdBound(int sourceRank) {
+            return isMidnight() ? idBound(sourceRank) : Long.MIN_VALUE;
+        }
+
+        private boolean isMidnight() {
+            return timestamp.equals(timestamp.toLocalDate().atStartOfDay());
+        }
+
+        @Override
+        public String toString() {
+            return timestamp + "~" + rank + "~" + id;
+        }
+    }
+
     public Map<String, Object> getCourseDistribution() {
-        List<Student> students = studentRepository.findAll();
-        Map<String, Long> courseCount = students.stream()
-                .filter(s -> s.getCourses() != null)
-                .collect(Collectors.groupingBy(Student::getCourses, Collectors.counting()));
+        List<String> labels = new ArrayList<>();
+        List<Long> data = new ArrayList<>();
+        for (LabelTotal row : studentRepository.countByCourse()) {
+            labels.add(row.getLabel());
+            data.add(row.getTotal().longValue());
+        }
 
         Map<String, Object> result = new HashMap<>();
-        result.put("labels", new ArrayList<>(courseCount.keySet()));
-        result.put("data", new ArrayList<>(courseCount.values()));
+        result.put("labels", labels);
+        result.put("data", data);
         return result;
     }
 
     public Map<String, Object> getPaymentMethodsDistribution() {
-        List<Payment> payments = paymentRepository.findAll();
-        Map<String, Long> methodCount = payments.stream()
-                .filter(p -> p.getPaymentMethod() != null)
-                .collect(Collectors.groupingBy(Payment::getPaymentMethod, Collectors.counting()));
+        List<String> labels = new ArrayList<>();
+        List<Long> data = new ArrayList<>();
+        for (LabelTotal row : paymentRepository.countByPaymentMethod()) {
+            labels.add(row.getLabel());
+            data.add(row.getTotal().longValue());
+        }
+
+        Map<String, Object> result = new HashMap<>();
+        result.put("labels", labels);
+        result.put("data", data);
+        return result;
+    }
+
+    // Admissions for the current month and the 11 before it; keys are YYYY-MM
+    public Map<String, Object> getMonthlyEnrollment() {
+        YearMonth firstMonth = YearMonth.now().minusMonths(11);
+        Map<YearMonth, Long> monthlyCounts = new HashMap<>();
+        for (MonthlyTotal row : studentRepository.countAdmissionsByMonth(
+                firstMonth.atDay(1), YearMonth.now().plusMonths(1).atDay(1))) {
+            monthlyCounts.put(row.toYearMonth(), row.getTotal().longValue());
+        }
+
+        List<String> labels = new ArrayList<>();
+        List<String> keys = new ArrayList<>();
+        List<Long> data = new ArrayList<>();
+        for (YearMonth month = firstMonth; !month.isAfter(YearMonth.now()); month = month.plusMonths(1)) {
+            labels.add(month.format(DateTimeFormatter.ofPattern("MMM")));
+            keys.add(month.toString());
+            data.add(monthlyCounts.getOrDefault(month, 0L));
+        }
 
         Map<String, Object> result = new HashMap<>();
-        result.put("labels", new ArrayList<>(methodCount.keySet()));
-        result.put("data", new ArrayList<>(methodCount.values()));
+        result.put("labels", labels);
+        result.put("keys", keys);
+        result.put("data", data);
+        return result;
+    }
+
+    // All dashboard sections in one payload; the sections are computed concurrently
+    public Map<String, Object> getDashboardSummary(String enrollmentPeriod, String revenuePeriod, int activityLimit) {
+        CompletableFuture<Map<String, Object>> kpis =
+                CompletableFuture.supplyAsync(this::getDashboardKPIs, summaryExecutor);
+        CompletableFuture<Map<String, Object>> enrollmentTrend = CompletableFuture.supplyAsync(
+                () -> "monthly".equals(enrollmentPeriod)
+                        ? getMonthlyEnrollment()
+                        : getEnrollmentTrend(Integer.parseInt(enrollmentPeriod)),
+                summaryExecutor);
+        CompletableFuture<Map<String, Object>> revenueOverview =
+                CompletableFuture.supplyAsync(() -> getRevenueOverview(revenuePeriod), summaryExecutor);
+        CompletableFuture<Map<String, Object>> recentActivity =
+                CompletableFuture.supplyAsync(() -> getRecentActivity(activityLimit), summaryExecutor);
+        CompletableFuture<Map<String, Object>> courseDistribution =
+                CompletableFuture.supplyAsync(this::getCourseDistribution, summaryExecutor);
+        CompletableFuture<Map<String, Object>> paymentMethods =
+                CompletableFuture.supplyAsync(this::getPaymentMethodsDistribution, summaryExecutor);
+
+        Map<String, Object> result = new HashMap<>();
+        result.put("kpis", kpis.join());
+        result.put("enrollmentTrend", enrollmentTrend.join());
+        result.put("revenueOverview", revenueOverview.join());
+        result.put("recentActivity", recentActivity.join());
+        result.put("courseDistribution", courseDistribution.join());
+        result.put("paymentMethods", paymentMethods.join());
+        return result;
+    }
+
+    /**
+     * Compares the running revenue and pending totals with a full SUM over the
+     * tables. With rebuild set, a mismatch reloads the in-memory indexes. A
+     * write committing between the two reads can show as a passing difference.
+     */
+    public Map<String, Object> checkTotals(boolean rebuild) {
+        Map<String, Object> revenue = compareTotals(BigDecimal.valueOf(revenueIndex.getTotalRevenue()),
+                BigDecimal.valueOf(paymentRepository.sumAmount()));
+        Map<String, Object> pending = compareTotals(aggregateStore.getRemainingTotal(),
+                studentRepository.sumRemainingAmount());
+        boolean consistent = (Boolean) revenue.get("consistent") && (Boolean) pending.get("consistent");
+
+        Map<String, Object> result = new HashMap<>();
+        result.put("revenue", revenue);
+        result.put("pending", pending);
+        result.put("consistent", consistent);
+        result.put("rebuilt", false);
+        if (!consistent) {
+            System.out.println("Running totals differ from the database: revenue " + revenue + ", pending " + pending);
+            if (rebuild) {
+                revenueIndex.rebuild();
+                aggregateStore.rebuild();
+                result.put("rebuilt", true);
+            }
+        }
+        return result;
+    }
+
+    // Equal to the paisa; the revenue index itself counts in paise
+    private static Map<String, Object> compareTotals(BigDecimal running, BigDecimal recomputed) {
+        BigDecimal difference = running.subtract(recomputed).setScale(2, RoundingMode.HALF_UP);
+        Map<String, Object> result = new HashMap<>();
+        result.put("running", running.doubleValue());
+        result.put("recomputed", recomputed.doubleValue());
+        result.put("difference", difference.doubleValue());
+        result.put("consistent", difference.signum() == 0);
         return result;
     }
 
+    @PreDestroy
+    public void shutdown() {
+        summaryExecutor.shutdownNow();
+    }
+
     private String calculateTrend(long current, long previous) {
         if (previous == 0) {
             return current > 0 ? "+100%" : "0%";
@@ -0,0 +1,277 @@
+package com.example.studentmanagement.service;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import com.example.studentmanagement.service.DataChangedEvent.DataSet;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Pushes dashboard updates to open browsers over Server-Sent Events.
+ *
+ * Writes are collected for a short window and turned into a single payload,
+ * computed once no matter how many dashboards are connected. Each client
+ * holds at most one unsent payload: newer sections overwrite older ones, so a
+ * slow browser costs one small map rather than an ever-growing queue.
+ *
+ * A send is a blocking socket write. Each client has its own sender while it
+ * writes, so a stalled browser never holds up the others, and one whose write
+ * has been stuck for longer than SEND_TIMEOUT_MILLIS is disconnected.
+ */
+@Service
+public class DashboardStreamService {
+
+    private static final long COALESCE_MILLIS = 500;
+    private static final long HEARTBEAT_SECONDS = 25;
+    private static final long EMITTER_TIMEOUT_MILLIS = TimeUnit.MINUTES.toMillis(30);
+    private static final long SEND_TIMEOUT_MILLIS = 10_000;
+    private static final int MAX_CLIENTS = 200;
+    private static final int SENDER_THREADS = 4;
+
+    @Autowired
+    private DashboardService dashboardService;
+
+    private final List<Client> clients = new CopyOnWriteArrayList<>();
+    private final Semaphore slots = new Semaphore(MAX_CLIENTS);
+    private final Set<DataSet> pendingChanges = EnumSet.noneOf(DataSet.class);
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "dashboard-stream");
+        thread.setDaemon(true);
+        return thread;
+    });
+    // A client has at most one drain running, so threads beyond the core ones only exist for
+    // clients whose writes are slow; they end once the write returns or fails
+    private final ExecutorService senders = new ThreadPoolExecutor(SENDER_THREADS, Integer.MAX_VALUE, 60,
+            TimeUnit.SECONDS, new SynchronousQueue<>(), r -> {
+                Thread thread = new Thread(r, "dashboard-stream-sender");
+                thread.setDaemon(true);
+                return thread;
+            });
+
+    public DashboardStreamService() {
+        scheduler.scheduleAtFixedRate(this::heartbeat, HEARTBEAT_SECONDS, HEARTBEAT_SECONDS, TimeUnit.SECONDS);
+    }
+
+    // Returns null when the connection limit is reached
+    public SseEmitter subscribe() {
+        if (!slots.tryAcquire()) {
+            return null;
+        }
+        SseEmitter emitter = new SseEmitter(EMITTER_TIMEOUT_MILLIS);
+        Client client = new Client(emitter);
+        emitter.onCompletion(client::close);
+        emitter.onTimeout(client::close);
+        emitter.onError(e -> client.close());
+        clients.add(client);
+
+        // New subscribers start from a full snapshot; nothing is marked as changed. Built off the
+        // request thread: the request's open-in-view session would otherwise hold its database
+        // connection for as long as the stream stays open.
+        scheduler.execute(() -> {
+            try {
+                Map<String, Object> snapshot = buildPayload(
+                        EnumSet.of(DataSet.STUDENTS, DataSet.PAYMENTS, DataSet.ENQUIRIES));
+                snapshot.put("changed", new ArrayList<String>());
+                client.offer(snapshot);
+            } catch (Exception e) {
+                System.out.println("Error building dashboard snapshot: " + e.getMessage());
+            }
+        });
+        return emitter;
+    }
+
+    public int getClientCount() {
+        return clients.size();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onDataChanged(DataChangedEvent event) {
+        if (event.dataSet() == DataSet.CERTIFICATES) {
+            return;
+        }
+        synchronized (pendingChanges) {
+            boolean flushScheduled = !pendingChanges.isEmpty();
+            pendingChanges.add(event.dataSet());
+            if (!flushScheduled) {
+                scheduler.schedule(this::flush, COALESCE_MILLIS, TimeUnit.MILLISECONDS);
+            }
+        }
+    }
+
+    private void flush() {
+        Set<DataSet> changed;
+        synchronized (pendingChanges) {
+            changed = EnumSet.copyOf(pendingChanges);
+            pendingChanges.clear();
+        }
+        if (clients.isEmpty()) {
+            return;
+        }
+        try {
+            Map<String, Object> payload = buildPayload(changed);
+            for (Client client : clients) {
+                client.offer(payload);
+            }
+        } catch (Exception e) {
+            System.out.println("Error building dashboard update: " + e.getMessage());
+        }
+    }
+
+    // Only the sections that depend on the changed data sets
+    private Map<String, Object> buildPayload(Set<DataSet> changed) {
+        Map<String, Object> payload = new HashMap<>();
+        List<String> changedNames = new ArrayList<>();
+        changed.forEach(dataSet -> changedNames.add(dataSet.name().toLowerCase()));
+        payload.put("changed", changedNames);
+        payload.put("kpis", dashboardService.getDashboardKPIs());
+        payload.put("recentActivity", dashboardService.getRecentActivity(10));
+        if (changed.contains(DataSet.STUDENTS)) {
+            payload.put("enrollmentTrend", dashboardService.getEnrollmentTrend(30));
+            payload.put("courseDistribution", dashboardService.getCourseDistribution());
+        }
+        if (changed.contains(DataSet.PAYMENTS)) {
+            payload.put("revenueOverview", dashboardService.getRevenueOverview("monthly"));
+            payload.put("paymentMethods", dashboardService.getPaymentMethodsDistribution());
+        }
+        return payload;
+    }
+
+    private void heartbeat() {
+        long now = System.currentTimeMillis();
+        for (Client client : clients) {
+            if (client.isStalled(now)) {
+                client.drop(new IOException("Dashboard update not written within " + SEND_TIMEOUT_MILLIS + " ms"));
+            } else {
+                client.ping();
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        scheduler.shutdownNow();
+        senders.shutdownNow();
+        clients.forEach(client -> client.emitter.complete());
+    }
+
+    // One connected browser with a single-slot mailbox
+    private class Client {
+        private final SseEmitter emitter;
+        private final AtomicReference<Map<String, Object>> mailbox = new AtomicReference<>();
+        private final AtomicBoolean sending = new AtomicBoolean();
+        private final AtomicBoolean closed = new AtomicBoolean();
+        private volatile boolean pingDue;
+        // When the write in progress started; 0 when none is
+        private volatile long sendStartedAt;
+
+        Client(SseEmitter emitter) {
+            this.emitter = emitter;
+        }
+
+        void offer(Map<String, Object> payload) {
+            mailbox.accumulateAndGet(payload, Client::merge);
+            startSending();
+        }
+
+        void ping() {
+            pingDue = true;
+            startSending();
+        }
+
+        boolean isStalled(long now) {
+            long started = sendStartedAt;
+            return started != 0 && now - started > SEND_TIMEOUT_MILLIS;
+        }
+
+        // Gives the slot back exactly once, however the connection ended
+        void close() {
+            if (closed.compareAndSet(false, true)) {
+                clients.remove(this);
+                slots.release();
+            }
+        }
+
+        void drop(Exception cause) {
+            close();
+            try {
+                emitter.completeWithError(cause);
+            } catch (Exception e) {
+                // Already completed
+            }
+        }
+
+        private void startSending() {
+            if (!closed.get() && sending.compareAndSet(false, true)) {
+                senders.execute(this::drain);
+            }
+        }
+
+        private void drain() {
+            try {
+                while (!closed.get()) {
+                    if (pingDue) {
+                        pingDue = false;
+                        send(SseEmitter.event().comment("ping"));
+                    }
+                    Map<String, Object> payload = mailbox.getAndSet(null);
+                    if (payload != null) {
+                        send(SseEmitter.event().name("dashboard").data(payload));
+                        continue;
+                    }
+                    sending.set(false);
+                    // Re-check so an offer racing with the release above is not stranded
+                    if ((mailbox.get() == null && !pingDue) || !sending.compareAndSet(false, true)) {
+                        return;
+                    }
+                }
+            } catch (IOException | IllegalStateException e) {
+                drop(e);
+            }
+        }
+
+        private void send(SseEmitter.SseEventBuilder event) throws IOException {
+            sendStartedAt = System.currentTimeMillis();
+            try {
+                emitter.send(event);
+            } finally {
+                sendStartedAt = 0;
+            }
+        }
+
+        // Newer sections replace older ones; the changed lists are unioned
+        @SuppressWarnings("unchecked")
+        private static Map<String, Object> merge(Map<String, Object> older, Map<String, Object> newer) {
+            if (older == null) {
+                return newer;
+            }
+            Map<String, Object> merged = new HashMap<>(older);
+            merged.putAll(newer);
+            Set<String> changed = new LinkedHashSet<>((List<String>) older.get("changed"));
+            changed.addAll((List<String>) newer.get("changed"));
+            merged.put("changed", new ArrayList<>(changed));
+            return merged;
+        }
+    }
+}
@@ -0,0 +1,9 @@
+package com.example.studentmanagement.service;
+
+// Published by the services whenever rows of a data set are written
+public record DataChangedEvent(DataSet dataSet) {
+
+    public enum DataSet {
+        STUDENTS, PAYMENTS, ENQUIRIES, CERTIFICATES
+    }
+}
@@ -0,0 +1,65 @@
+package com.example.studentmanagement.service;
+
+import java.time.LocalDate;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.example.studentmanagement.service.DataChangedEvent.DataSet;
+
+/**
+ * A version counter per data set, bumped after every committed write. GET
+ * endpoints derive their ETag from the versions of the data sets they read,
+ * so a client holding the current tag can be answered with 304 before any
+ * query runs.
+ */
+@Component
+public class DataVersions {
+
+    // Tags issued before a restart must not match once the counters start over
+    private final long epoch = System.currentTimeMillis();
+    private final Map<DataSet, AtomicLong> versions = new EnumMap<>(DataSet.class);
+    private final Map<DataSet, AtomicLong> lastModified = new EnumMap<>(DataSet.class);
+
+    public DataVersions() {
+        for (DataSet dataSet : DataSet.values()) {
+            versions.put(dataSet, new AtomicLong());
+            lastModified.put(dataSet, new AtomicLong(epoch));
+        }
+    }
+
+    // After ResponseCache has dropped the entries the new version makes stale
+    @TransactionalEventListener(fallbackExecution = true)
+    @Order(1)
+    public void onDataChanged(DataChangedEvent event) {
+        versions.get(event.dataSet()).incrementAndGet();
+        lastModified.get(event.dataSet()).set(System.currentTimeMillis());
+    }
+
+    // Weak tag: relative times like "5 minutes ago" are not byte-for-byte stable.
+    // The date is included because month-to-date figures roll over at midnight.
+    public String getETag(Set<DataSet> dataSets) {
+        StringBuilder tag = new StringBuilder("W/\"")
+                .append(Long.toString(epoch, 36))
+                .append('-').append(LocalDate.now().toEpochDay());
+        for (DataSet dataSet : DataSet.values()) {
+            if (dataSets.contains(dataSet)) {
+                tag.append('-').append(versions.get(dataSet).get());
+            }
+        }
+        return tag.append('"').toString();
+    }
+
+    public long getLastModified(Set<DataSet> dataSets) {
+        long latest = epoch;
+        for (DataSet dataSet : dataSets) {
+            latest = Math.max(latest, lastModified.get(dataSet).get());
+        }
+        return latest;
+    }
+}
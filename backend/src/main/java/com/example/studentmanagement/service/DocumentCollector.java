@@ -0,0 +1,132 @@
+package com.example.studentmanagement.service;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.studentmanagement.model.DocumentBlob;
+import com.example.studentmanagement.repository.DocumentBlobRepository;
+import com.example.studentmanagement.repository.StudentRepository;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Deletes stored documents that no student refers to any more. A run takes a
+ * small batch of the longest-released blobs off the released_at index, so its
+ * cost follows the number of releases rather than the size of the store, and
+ * the directory tree is never walked. A blob is collected only after a grace
+ * period, which covers an upload whose student has not been saved yet, and
+ * only once the students table agrees that nothing references it.
+ */
+@Component
+public class DocumentCollector {
+
+    private static final int BATCH_SIZE = 100;
+    private static final long INTERVAL_MINUTES = 10;
+
+    @Value("${documents.gc.grace-minutes:60}")
+    private long graceMinutes;
+
+    @Autowired
+    private DocumentBlobRepository blobRepository;
+
+    @Autowired
+    private StudentRepository studentRepository;
+
+    @Autowired
+    private DocumentStorageService documentStorageService;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "document-collector");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    @PostConstruct
+    public void start() {
+        scheduler.scheduleWithFixedDelay(this::collectQuietly, INTERVAL_MINUTES, INTERVAL_MINUTES, TimeUnit.MINUTES);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        scheduler.shutdownNow();
+    }
+
+    private void collectQuietly() {
+        try {
+            Map<String, Object> result = collect();
+            // A full batch means more are waiting; carry on rather than wait for the next interval
+            if ((int) result.get("examined") == BATCH_SIZE) {
+                scheduler.execute(this::collectQuietly);
+            }
+        } catch (Exception e) {
+            System.out.println("Error collecting documents: " + e.getMessage());
+        }
+    }
+
+    // One batch; synchronized so a manual run and the scheduled one don't race for the same blobs
+    public synchronized Map<String, Object> collect() {
+        LocalDateTime cutoff = LocalDateTime.now().minusMinutes(graceMinutes);
+        List<DocumentBlob> candidates = blobRepository.findCollectable(cutoff, PageRequest.of(0, BATCH_SIZE));
+        int deleted = 0;
+        int stillReferenced = 0;
+        long bytesFreed = 0;
+        for (DocumentBlob blob : candidates) {
+            String sha256 = blob.getSha256();
+            String filename = sha256 + blob.getExtension();
+            long references = studentRepository.countByTenthClassDocument(filename);
+            if (references > 0) {
+                // Written without going through the counts (an old import, say); the students table wins
+                transactionTemplate.executeWithoutResult(
+                        status -> blobRepository.setReferenced(sha256, (int) references));
+                stillReferenced++;
+                continue;
+            }
+            synchronized (documentStorageService.lockFor(sha256)) {
+                Integer removed = transactionTemplate.execute(
+                        status -> blobRepository.deleteIfCollectable(sha256, cutoff));
+                if (removed == null || removed == 0) {
+                    continue;
+                }
+                try {
+                    Files.deleteIfExists(documentStorageService.resolve(filename));
+                    for (String kind : new String[] {"preview", "thumb"}) {
+                        String derivative = DocumentStorageService.derivativeName(sha256, kind);
+                        Files.deleteIfExists(documentStorageService.resolve(derivative));
+                    }
+                } catch (IOException e) {
+                    System.out.println("Could not delete document " + filename + ": " + e.getMessage());
+                }
+            }
+            deleted++;
+            bytesFreed += blob.getSize();
+        }
+        if (deleted > 0 || stillReferenced > 0) {
+            System.out.println("Document collector: deleted " + deleted + " (" + bytesFreed + " bytes), "
+                    + stillReferenced + " still referenced");
+        }
+
+        Map<String, Object> result = new HashMap<>();
+        result.put("examined", candidates.size());
+        result.put("deleted", deleted);
+        result.put("stillReferenced", stillReferenced);
+        result.put("bytesFreed", bytesFreed);
+        return result;
+    }
+}
@@ -0,0 +1,362 @@
+package com.example.studentmanagement.service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.studentmanagement.model.DocumentScan;
+import com.example.studentmanagement.model.DocumentScan.Status;
+import com.example.studentmanagement.repository.DocumentScanRepository;
+import com.example.studentmanagement.repository.StudentRepository;
+import com.example.studentmanagement.service.DataChangedEvent.DataSet;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Checks every student's document reference against the files on disk and
+ * repairs what it can: "uploads/documents/x" references left by old uploads
+ * become "x", references to files that are gone are cleared, and preview or
+ * thumbnail names whose files are gone are cleared and queued again.
+ *
+ * The documents directory is listed once, its shard directories in parallel,
+ * into a set of names. Students are then read in keyset pages of just the id
+ * and document columns and compared with that set in memory. Each page's
+ * fixes are applied as batched updates in one transaction together with the
+ * scan's checkpoint, so a scan cut short by a restart resumes after the last
+ * page that committed.
+ */
+@Service
+public class DocumentIntegrityService {
+
+    private static final int PAGE_SIZE = 1000;
+    private static final int WALK_THREADS = 4;
+    private static final String LEGACY_PREFIX = "uploads/documents/";
+
+    @Autowired
+    private StudentRepository studentRepository;
+
+    @Autowired
+    private DocumentScanRepository scanRepository;
+
+    @Autowired
+    private DocumentStorageService documentStorageService;
+
+    @Autowired
+    private DocumentPreviewService documentPreviewService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    private final ExecutorService runner = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "document-scan");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    // Progress of the scan in this process; the counters that matter are on the scan row
+    private Long activeScanId;
+    private volatile boolean cancelRequested;
+    private volatile String phase;
+    private volatile long studentsTotal;
+    private final AtomicLong filesFound = new AtomicLong();
+
+    // Starts a scan, or reports the one already running
+    public synchronized Map<String, Object> start() {
+        if (activeScanId == null) {
+            DocumentScan scan = new DocumentScan();
+            scan.setStartedAt(LocalDateTime.now());
+            launch(scanRepository.save(scan).getId());
+        }
+        return getStatus();
+    }
+
+    // Picks up a scan the last shutdown interrupted; after legacy migration and the preview backfill
+    @EventListener(ApplicationReadyEvent.class)
+    @Order(2)
+    public synchronized void resumeInterrupted() {
+        scanRepository.findFirstByStatusOrderByIdDesc(Status.RUNNING).ifPresent(scan -> {
+            System.out.println("Resuming document scan " + scan.getId() + " after student " + scan.getLastStudentId());
+            launch(scan.getId());
+        });
+    }
+
+    // False when no scan is running; otherwise it stops after the current page
+    public synchronized boolean cancel() {
+        if (activeScanId == null) {
+            return false;
+        }
+        cancelRequested = true;
+        return true;
+    }
+
+    // The latest scan, with live progress while it runs; null when there has never been one
+    public synchronized Map<String, Object> getStatus() {
+        Optional<DocumentScan> latest = scanRepository.findFirstByOrderByIdDesc();
+        if (latest.isEmpty()) {
+            return null;
+        }
+        DocumentScan scan = latest.get();
+        Map<String, Object> status = new HashMap<>();
+        status.put("id", scan.getId());
+        status.put("status", scan.getStatus());
+        status.put("startedAt", scan.getStartedAt());
+        status.put("finishedAt", scan.getFinishedAt());
+        status.put("lastStudentId", scan.getLastStudentId());
+        status.put("studentsChecked", scan.getStudentsChecked());
+        status.put("pathsFixed", scan.getPathsFixed());
+        status.put("missingCleared", scan.getMissingCleared());
+        status.put("derivativesCleared", scan.getDerivativesCleared());
+        status.put("unreferencedFiles", scan.getUnreferencedFiles());
+        status.put("error", scan.getError());
+        if (scan.getId().equals(activeScanId)) {
+            status.put("phase", phase);
+            status.put("filesFound", filesFound.get());
+            status.put("studentsTotal", studentsTotal);
+        }
+        return status;
+    }
+
+    private void launch(Long scanId) {
+        activeScanId = scanId;
+        cancelRequested = false;
+        phase = "walking";
+        filesFound.set(0);
+        studentsTotal = 0;
+        runner.execute(() -> run(scanId));
+    }
+
+    private void run(Long scanId) {
+        long started = System.currentTimeMillis();
+        try {
+            Set<String> files = walk();
+            phase = "checking";
+            studentsTotal = studentRepository.countByTenthClassDocumentIsNotNull();
+            long afterId = scanRepository.findById(scanId).orElseThrow().getLastStudentId();
+            while (true) {
+                if (stopping()) {
+                    System.out.println("Document scan " + scanId + " interrupted after student " + afterId);
+                    return;
+                }
+                if (cancelRequested) {
+                    finish(scanId, Status.CANCELLED, null, null);
+                    return;
+                }
+                List<Object[]> rows = studentRepository.findDocumentRowsAfter(afterId, PageRequest.of(0, PAGE_SIZE));
+                if (rows.isEmpty()) {
+                    break;
+                }
+                afterId = (Long) rows.get(rows.size() - 1)[0];
+                checkPage(scanId, rows, files, afterId);
+            }
+            phase = "counting";
+            finish(scanId, Status.DONE, countUnreferenced(files), null);
+            System.out.println("Document scan " + scanId + " finished: " + files.size() + " files in "
+                    + (System.currentTimeMillis() - started) + " ms");
+        } catch (Exception e) {
+            // Stopped by a shutdown: left RUNNING so the next start resumes from the checkpoint
+            if (e instanceof InterruptedException || stopping()) {
+                System.out.println("Document scan " + scanId + " interrupted by shutdown");
+                return;
+            }
+            System.out.println("Document scan " + scanId + " failed: " + e.getMessage());
+            finish(scanId, Status.FAILED, null, e.getMessage());
+        } finally {
+            synchronized (this) {
+                activeScanId = null;
+                phase = null;
+            }
+        }
+    }
+
+    // Paths relative to the documents directory; upload temporaries are left out
+    private Set<String> walk() throws IOException, InterruptedException {
+        Path base = DocumentStorageService.DOCUMENTS_DIR.toAbsolutePath().normalize();
+        Set<String> files = ConcurrentHashMap.newKeySet();
+        if (!Files.isDirectory(base)) {
+            return files;
+        }
+        List<Path> shards = new ArrayList<>();
+        try (DirectoryStream<Path> entries = Files.newDirectoryStream(base)) {
+            for (Path entry : entries) {
+                if (Files.isDirectory(entry)) {
+                    shards.add(entry);
+                } else {
+                    addFile(base, entry, files);
+                }
+            }
+        }
+        ForkJoinPool pool = new ForkJoinPool(WALK_THREADS);
+        try {
+            pool.submit(() -> shards.parallelStream().forEach(shard -> {
+                try (Stream<Path> entries = Files.walk(shard)) {
+                    entries.filter(Files::isRegularFile).forEach(file -> addFile(base, file, files));
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            })).get();
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof UncheckedIOException unchecked ? unchecked.getCause()
+                    : new IOException(e.getCause());
+        } finally {
+            pool.shutdown();
+        }
+        return files;
+    }
+
+    private void addFile(Path base, Path file, Set<String> files) {
+        if (!file.getFileName().toString().endsWith(".part")) {
+            files.add(base.relativize(file).toString());
+            filesFound.incrementAndGet();
+        }
+    }
+
+    // Where the name lives relative to the documents directory, as walk() records it; null if it can't
+    private String keyOf(String filename) {
+        Path file = documentStorageService.resolve(filename);
+        return file == null ? null
+                : DocumentStorageService.DOCUMENTS_DIR.toAbsolutePath().normalize().relativize(file).toString();
+    }
+
+    private boolean isPresent(String filename, Set<String> files) {
+        String key = keyOf(filename);
+        return key != null && files.contains(key);
+    }
+
+    // The listing is as old as the scan; a file stored since then is only on disk
+    private boolean isMissing(String filename, Set<String> files) {
+        if (isPresent(filename, files)) {
+            return false;
+        }
+        Path file = documentStorageService.resolve(filename);
+        return file == null || !Files.exists(file);
+    }
+
+    private void checkPage(Long scanId, List<Object[]> rows, Set<String> files, long lastId) {
+        List<Object[]> pathFixes = new ArrayList<>();
+        List<Object[]> missing = new ArrayList<>();
+        List<Long> staleDerivatives = new ArrayList<>();
+        Set<String> regenerate = new HashSet<>();
+        for (Object[] row : rows) {
+            Long id = (Long) row[0];
+            String document = (String) row[1];
+            String preview = (String) row[2];
+            String thumbnail = (String) row[3];
+            String filename = document.startsWith(LEGACY_PREFIX) ? document.substring(LEGACY_PREFIX.length()) : document;
+            if (isMissing(filename, files)) {
+                missing.add(new Object[] {id, document});
+                continue;
+            }
+            if (!filename.equals(document)) {
+                pathFixes.add(new Object[] {filename, id, document});
+            }
+            if ((preview != null && isMissing(preview, files)) || (thumbnail != null && isMissing(thumbnail, files))) {
+                staleDerivatives.add(id);
+                regenerate.add(filename);
+            }
+        }
+
+        transactionTemplate.executeWithoutResult(status -> {
+            if (!pathFixes.isEmpty()) {
+                jdbcTemplate.batchUpdate("UPDATE students SET tenth_class_document = ? WHERE id = ? "
+                        + "AND tenth_class_document = ?", pathFixes);
+            }
+            int cleared = 0;
+            if (!missing.isEmpty()) {
+                // Only rows still pointing at the missing file; one saved since the page was read keeps its upload
+                int[] counts = jdbcTemplate.batchUpdate("UPDATE students SET tenth_class_document = NULL, "
+                        + "tenth_class_document_preview = NULL, tenth_class_document_thumbnail = NULL "
+                        + "WHERE id = ? AND tenth_class_document = ?", missing);
+                List<String> released = new ArrayList<>();
+                for (int i = 0; i < counts.length; i++) {
+                    if (counts[i] > 0 || counts[i] == Statement.SUCCESS_NO_INFO) {
+                        released.add((String) missing.get(i)[1]);
+                    }
+                }
+                documentStorageService.releaseAll(released);
+                cleared = released.size();
+            }
+            if (!staleDerivatives.isEmpty()) {
+                studentRepository.clearDocumentDerivatives(staleDerivatives);
+                regenerate.forEach(documentPreviewService::requestDerivatives);
+            }
+            DocumentScan scan = scanRepository.findById(scanId).orElseThrow();
+            scan.setLastStudentId(lastId);
+            scan.setStudentsChecked(scan.getStudentsChecked() + rows.size());
+            scan.setPathsFixed(scan.getPathsFixed() + pathFixes.size());
+            scan.setMissingCleared(scan.getMissingCleared() + cleared);
+            scan.setDerivativesCleared(scan.getDerivativesCleared() + staleDerivatives.size());
+            if (!pathFixes.isEmpty() || cleared > 0 || !staleDerivatives.isEmpty()) {
+                eventPublisher.publishEvent(new DataChangedEvent(DataSet.STUDENTS));
+            }
+        });
+    }
+
+    // Stored documents (not previews or thumbnails) that no student refers to
+    private long countUnreferenced(Set<String> files) {
+        Set<String> referenced = new HashSet<>();
+        transactionTemplate.executeWithoutResult(status -> {
+            try (Stream<String> documents = studentRepository.streamDistinctDocuments()) {
+                documents.map(this::keyOf).forEach(referenced::add);
+            }
+        });
+        return files.stream()
+                .filter(file -> !DocumentStorageService.isDerivative(Path.of(file).getFileName().toString()))
+                .filter(file -> !referenced.contains(file))
+                .count();
+    }
+
+    private void finish(Long scanId, Status status, Long unreferencedFiles, String error) {
+        transactionTemplate.executeWithoutResult(tx -> {
+            DocumentScan scan = scanRepository.findById(scanId).orElseThrow();
+            scan.setStatus(status);
+            scan.setFinishedAt(LocalDateTime.now());
+            scan.setUnreferencedFiles(unreferencedFiles);
+            if (error != null) {
+                scan.setError(error.length() > 500 ? error.substring(0, 500) : error);
+            }
+        });
+    }
+
+    private boolean stopping() {
+        return runner.isShutdown() || Thread.currentThread().isInterrupted();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        runner.shutdownNow();
+    }
+}
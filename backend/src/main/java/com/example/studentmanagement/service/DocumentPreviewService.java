@@ -0,0 +1,322 @@
+package com.example.studentmanagement.service;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.studentmanagement.repository.DocumentBlobRepository;
+import com.example.studentmanagement.repository.StudentRepository;
+import com.example.studentmanagement.service.DataChangedEvent.DataSet;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Makes a compressed preview (1600 px) and a thumbnail (240 px) of each image
+ * document, as JPEGs stored beside the original, and records their names on
+ * the students that use it. Runs on a small low-priority pool after the
+ * student is saved, so uploads never wait for it; PDFs get no derivatives.
+ *
+ * Large photos are decoded with source subsampling, so a 12 MP scan is never
+ * held in memory at full size. Anything the pool cannot take, or that fails,
+ * is picked up again by the backfill at the next start. The backfill pages
+ * through every document without derivatives, waiting for the pool as it
+ * goes, and never holds more than half the queue so uploads still get in.
+ */
+@Service
+public class DocumentPreviewService {
+
+    private static final int PREVIEW_SIZE = 1600;
+    private static final int THUMBNAIL_SIZE = 240;
+    private static final float PREVIEW_QUALITY = 0.8f;
+    private static final float THUMBNAIL_QUALITY = 0.75f;
+    // Refuses to decode anything bigger; a tiny file can declare a huge image
+    private static final long MAX_PIXELS = 80_000_000L;
+    private static final int WORKERS = 2;
+    private static final int QUEUE_CAPACITY = 500;
+    private static final int BACKFILL_PAGE_SIZE = 200;
+
+    @Autowired
+    private DocumentStorageService documentStorageService;
+
+    @Autowired
+    private StudentRepository studentRepository;
+
+    @Autowired
+    private DocumentBlobRepository blobRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    // Documents queued or being processed, so the same one is not done twice at once
+    private final Set<String> pending = ConcurrentHashMap.newKeySet();
+
+    // Queue slots the backfill may use; the rest are kept for new uploads
+    private final Semaphore backfillSlots = new Semaphore(QUEUE_CAPACITY / 2);
+
+    private final ExecutorService backfillRunner = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "document-preview-backfill");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final ThreadPoolExecutor workers = new ThreadPoolExecutor(WORKERS, WORKERS, 60, TimeUnit.SECONDS,
+            new ArrayBlockingQueue<>(QUEUE_CAPACITY), r -> {
+                Thread thread = new Thread(r, "document-preview");
+                thread.setDaemon(true);
+                thread.setPriority(Thread.MIN_PRIORITY);
+                return thread;
+            }, new ThreadPoolExecutor.AbortPolicy());
+
+    // Queues the document once the current transaction commits; PDFs and legacy names are ignored
+    public void requestDerivatives(String filename) {
+        if (!isImage(filename)) {
+            return;
+        }
+        TransactionHooks.afterCommit(() -> submit(filename, () -> { }));
+    }
+
+    // Runs after the legacy documents have been moved into the store
+    @EventListener(ApplicationReadyEvent.class)
+    @Order(1)
+    public void backfill() {
+        backfillRunner.execute(this::runBackfill);
+    }
+
+    // Pages by document name, so documents finished meanwhile do not shift the next page
+    private void runBackfill() {
+        int queued = 0;
+        String after = "";
+        try {
+            while (!backfillRunner.isShutdown()) {
+                List<String> page = studentRepository.findDocumentsWithoutThumbnail(after,
+                        PageRequest.of(0, BACKFILL_PAGE_SIZE));
+                for (String filename : page) {
+                    if (!isImage(filename)) {
+                        continue;
+                    }
+                    backfillSlots.acquire();
+                    if (submit(filename, backfillSlots::release)) {
+                        queued++;
+                    } else {
+                        backfillSlots.release();
+                    }
+                }
+                if (page.size() < BACKFILL_PAGE_SIZE) {
+                    break;
+                }
+                after = page.get(page.size() - 1);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (RuntimeException e) {
+            System.out.println("Preview backfill stopped: " + e.getMessage());
+        }
+        if (queued > 0) {
+            System.out.println("Queued " + queued + " documents for previews");
+        }
+    }
+
+    // done runs once the document is finished with, but only if it was queued
+    private boolean submit(String filename, Runnable done) {
+        if (!pending.add(filename)) {
+            return false;
+        }
+        try {
+            workers.execute(() -> {
+                try {
+                    generate(filename);
+                } finally {
+                    pending.remove(filename);
+                    done.run();
+                }
+            });
+            return true;
+        } catch (RejectedExecutionException e) {
+            pending.remove(filename);
+            System.out.println("Preview queue full, leaving " + filename + " for the next start");
+            return false;
+        }
+    }
+
+    private void generate(String filename) {
+        String sha256 = DocumentStorageService.contentHashOf(filename);
+        String previewName = DocumentStorageService.derivativeName(sha256, "preview");
+        String thumbnailName = DocumentStorageService.derivativeName(sha256, "thumb");
+        Path previewTemp = null;
+        Path thumbnailTemp = null;
+        try {
+            Path preview = documentStorageService.resolve(previewName);
+            Path thumbnail = documentStorageService.resolve(thumbnailName);
+            // The thumbnail is written last, so its presence means both are there
+            boolean missing;
+            synchronized (documentStorageService.lockFor(sha256)) {
+                if (!blobRepository.existsById(sha256)) {
+                    return;
+                }
+                missing = !Files.exists(thumbnail);
+            }
+            if (missing) {
+                Path source = documentStorageService.resolve(filename);
+                if (!Files.exists(source)) {
+                    return;
+                }
+                // Encoded outside the lock; only the renames wait for it
+                BufferedImage previewImage = scale(read(source), PREVIEW_SIZE);
+                previewTemp = writeJpeg(previewImage, PREVIEW_QUALITY, preview);
+                thumbnailTemp = writeJpeg(scale(previewImage, THUMBNAIL_SIZE), THUMBNAIL_QUALITY, thumbnail);
+                // The collector deletes the blob and its derivatives under the same lock; files
+                // written after that would never be collected
+                synchronized (documentStorageService.lockFor(sha256)) {
+                    if (!blobRepository.existsById(sha256)) {
+                        return;
+                    }
+                    Files.move(previewTemp, preview, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+                    Files.move(thumbnailTemp, thumbnail, StandardCopyOption.ATOMIC_MOVE,
+                            StandardCopyOption.REPLACE_EXISTING);
+                }
+            }
+            int students = transactionTemplate.execute(
+                    status -> studentRepository.setDocumentDerivatives(filename, previewName, thumbnailName));
+            if (students > 0) {
+                eventPublisher.publishEvent(new DataChangedEvent(DataSet.STUDENTS));
+            }
+        } catch (Exception e) {
+            System.out.println("Could not make previews of " + filename + ": " + e.getMessage());
+        } finally {
+            deleteQuietly(previewTemp);
+            deleteQuietly(thumbnailTemp);
+        }
+    }
+
+    // Decodes at the coarsest subsampling that still leaves at least twice the preview size
+    private static BufferedImage read(Path source) throws IOException {
+        try (ImageInputStream in = ImageIO.createImageInputStream(source.toFile())) {
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(in);
+            if (!readers.hasNext()) {
+                throw new IOException("No image reader for " + source.getFileName());
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(in, true, true);
+                int width = reader.getWidth(0);
+                int height = reader.getHeight(0);
+                if ((long) width * height > MAX_PIXELS) {
+                    throw new IOException("Image is " + width + "x" + height + ", too large to preview");
+                }
+                ImageReadParam param = reader.getDefaultReadParam();
+                int step = Math.max(1, Math.max(width, height) / (2 * PREVIEW_SIZE));
+                param.setSourceSubsampling(step, step, 0, 0);
+                return reader.read(0, param);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    // Fits the image within size x size, halving step by step so text stays legible; never enlarges
+    private static BufferedImage scale(BufferedImage image, int size) {
+        BufferedImage current = image;
+        while (Math.max(current.getWidth(), current.getHeight()) > 2 * size) {
+            current = resize(current, current.getWidth() / 2, current.getHeight() / 2);
+        }
+        double factor = Math.min(1.0, (double) size / Math.max(current.getWidth(), current.getHeight()));
+        return resize(current, (int) Math.round(current.getWidth() * factor),
+                (int) Math.round(current.getHeight() * factor));
+    }
+
+    // JPEG has no alpha: transparent PNG areas become white
+    private static BufferedImage resize(BufferedImage image, int width, int height) {
+        BufferedImage resized = new BufferedImage(Math.max(1, width), Math.max(1, height), BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = resized.createGraphics();
+        try {
+            graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            graphics.setColor(Color.WHITE);
+            graphics.fillRect(0, 0, resized.getWidth(), resized.getHeight());
+            graphics.drawImage(image, 0, 0, resized.getWidth(), resized.getHeight(), null);
+        } finally {
+            graphics.dispose();
+        }
+        return resized;
+    }
+
+    // Written to a temporary file beside the target, which the caller renames into place so a
+    // reader never sees half a file
+    private static Path writeJpeg(BufferedImage image, float quality, Path target) throws IOException {
+        Path temp = Files.createTempFile(target.getParent(), target.getFileName().toString(), ".part");
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+        try (ImageOutputStream out = ImageIO.createImageOutputStream(temp.toFile())) {
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            param.setCompressionQuality(quality);
+            writer.setOutput(out);
+            writer.write(null, new IIOImage(image, null, null), param);
+        } catch (IOException | RuntimeException e) {
+            deleteQuietly(temp);
+            throw e;
+        } finally {
+            writer.dispose();
+        }
+        return temp;
+    }
+
+    // A temporary that was renamed into place is already gone
+    private static void deleteQuietly(Path temp) {
+        if (temp == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(temp);
+        } catch (IOException e) {
+            System.out.println("Could not delete " + temp + ": " + e.getMessage());
+        }
+    }
+
+    private static boolean isImage(String filename) {
+        return filename != null && DocumentStorageService.contentHashOf(filename) != null
+                && (filename.endsWith(".jpg") || filename.endsWith(".png"));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        backfillRunner.shutdownNow();
+        workers.shutdownNow();
+    }
+}
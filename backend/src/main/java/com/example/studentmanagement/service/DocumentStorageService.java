@@ -0,0 +1,391 @@
+package com.example.studentmanagement.service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiConsumer;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.multipart.MultipartFile;
+
+import com.example.studentmanagement.model.DocumentBlob;
+import com.example.studentmanagement.repository.DocumentBlobRepository;
+import com.example.studentmanagement.repository.StudentRepository;
+import com.example.studentmanagement.service.DataChangedEvent.DataSet;
+
+/**
+ * Stores uploaded student documents under frontend/uploads/documents,
+ * addressed by content: a body is kept once, at ab/cd/{sha256}.{ext}, however
+ * often it is uploaded, and students refer to it by the name {sha256}.{ext}.
+ * The document_blobs table counts the students that reference each body;
+ * {@link DocumentCollector} deletes the ones nobody does.
+ *
+ * An upload is copied through a fixed 64 KB buffer into a temporary file in
+ * the same directory and then renamed into place, so heap use does not grow
+ * with the file and a half-written file is never visible under its final
+ * name. The size limit, the file type (from the leading bytes, not the name
+ * the browser sent) and the SHA-256 are all worked out during that one copy;
+ * when the body is already stored the copy is simply dropped.
+ */
+@Service
+public class DocumentStorageService {
+
+    public static final Path DOCUMENTS_DIR = Paths.get("frontend/uploads/documents/");
+    public static final long MAX_DOCUMENT_BYTES = 5 * 1024 * 1024;
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final int REFERENCE_CHUNK_SIZE = 1000;
+
+    private static final Pattern CONTENT_NAME = Pattern.compile("([0-9a-f]{64})(\\.(pdf|jpg|png))");
+    // Downscaled JPEG copies of an image body, stored beside it; see DocumentPreviewService
+    private static final Pattern DERIVATIVE_NAME = Pattern.compile("([0-9a-f]{64})\\.(preview|thumb)\\.jpg");
+    // Names the flat directory used to give out; such a file was written once and never changed
+    private static final Pattern LEGACY_NAME = Pattern.compile("[a-z_]+_[0-9a-f]{8}(-[0-9a-f]{4}){3}-[0-9a-f]{12}\\.[a-z]+");
+
+    @Autowired
+    private DocumentBlobRepository blobRepository;
+
+    @Autowired
+    private StudentRepository studentRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    public record StoredDocument(String filename, long size, String contentType, String sha256,
+            boolean deduplicated) {
+    }
+
+    // Content hashes of legacy files, keyed by name and only trusted while size and mtime are unchanged
+    private record CachedHash(long size, long modified, String sha256) {
+    }
+
+    private final Map<String, CachedHash> hashes = new ConcurrentHashMap<>();
+
+    // Serializes storing and collecting the same body; striped by the first byte of the hash
+    private final Object[] locks = new Object[64];
+
+    public DocumentStorageService() {
+        for (int i = 0; i < locks.length; i++) {
+            locks[i] = new Object();
+        }
+    }
+
+    // Throws IllegalArgumentException for an empty, oversized or unsupported file
+    public StoredDocument store(MultipartFile file) throws IOException {
+        try (InputStream in = file.getInputStream()) {
+            return store(in);
+        }
+    }
+
+    private StoredDocument store(InputStream in) throws IOException {
+        Files.createDirectories(DOCUMENTS_DIR);
+        // Not createTempFile: that would leave the document readable by its owner only
+        Path temp = DOCUMENTS_DIR.resolve("upload-" + UUID.randomUUID() + ".part");
+        try {
+            MessageDigest digest = sha256();
+            byte[] buffer = new byte[BUFFER_SIZE];
+            long size = 0;
+            String contentType = null;
+            try (OutputStream out = Files.newOutputStream(temp, StandardOpenOption.CREATE_NEW)) {
+                int read;
+                while ((read = in.readNBytes(buffer, 0, buffer.length)) > 0) {
+                    if (contentType == null) {
+                        // The first read fills the buffer unless the file is shorter, so the magic bytes are all here
+                        contentType = sniffContentType(buffer, read);
+                        if (contentType == null) {
+                            throw new IllegalArgumentException("Only PDF, JPEG and PNG documents are accepted");
+                        }
+                    }
+                    size += read;
+                    if (size > MAX_DOCUMENT_BYTES) {
+                        throw new IllegalArgumentException("Document is larger than " + MAX_DOCUMENT_BYTES + " bytes");
+                    }
+                    digest.update(buffer, 0, read);
+                    out.write(buffer, 0, read);
+                }
+            }
+            if (size == 0) {
+                throw new IllegalArgumentException("Document is empty");
+            }
+
+            String sha256 = HexFormat.of().formatHex(digest.digest());
+            String extension = extensionOf(contentType);
+            boolean deduplicated = put(temp, sha256, extension, size);
+            String filename = sha256 + extension;
+            System.out.println("Document saved: " + filename + " (" + size + " bytes"
+                    + (deduplicated ? ", already stored)" : ")"));
+            return new StoredDocument(filename, size, contentType, sha256, deduplicated);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    // Moves the file into the store unless the body is already there; true when it was
+    private boolean put(Path file, String sha256, String extension, long size) throws IOException {
+        synchronized (lockFor(sha256)) {
+            // An unreferenced blob starts its grace period again, so it is not collected before its student is saved
+            transactionTemplate.executeWithoutResult(status -> {
+                if (blobRepository.touchUnreferenced(sha256, LocalDateTime.now()) == 0
+                        && !blobRepository.existsById(sha256)) {
+                    blobRepository.save(new DocumentBlob(sha256, extension, size, LocalDateTime.now()));
+                }
+            });
+            Path target = blobPath(sha256, extension);
+            if (Files.exists(target)) {
+                return true;
+            }
+            Files.createDirectories(target.getParent());
+            Files.move(file, target, StandardCopyOption.ATOMIC_MOVE);
+            return false;
+        }
+    }
+
+    // One more (or one fewer) student refers to the document; names outside the store are ignored
+    @Transactional
+    public void retain(String filename) {
+        retainAll(List.of(filename));
+    }
+
+    @Transactional
+    public void release(String filename) {
+        releaseAll(List.of(filename));
+    }
+
+    // Same as retain() per name, with one statement per chunk of hashes rather than one per student
+    @Transactional
+    public void retainAll(Collection<String> filenames) {
+        forEachChunk(filenames, (hashes, count) -> blobRepository.addReferences(hashes, count));
+    }
+
+    @Transactional
+    public void releaseAll(Collection<String> filenames) {
+        LocalDateTime now = LocalDateTime.now();
+        forEachChunk(filenames, (hashes, count) -> {
+            blobRepository.removeReferences(hashes, count);
+            blobRepository.markReleased(hashes, now);
+        });
+    }
+
+    // Hashes grouped by how many of the names refer to them, in IN lists of at most REFERENCE_CHUNK_SIZE
+    private static void forEachChunk(Collection<String> filenames, BiConsumer<List<String>, Integer> action) {
+        Map<String, Integer> counts = new HashMap<>();
+        for (String filename : filenames) {
+            String sha256 = contentHashOf(filename);
+            if (sha256 != null) {
+                counts.merge(sha256, 1, Integer::sum);
+            }
+        }
+        Map<Integer, List<String>> byCount = new HashMap<>();
+        counts.forEach((sha256, count) -> byCount.computeIfAbsent(count, c -> new ArrayList<>()).add(sha256));
+        byCount.forEach((count, hashes) -> {
+            for (int from = 0; from < hashes.size(); from += REFERENCE_CHUNK_SIZE) {
+                action.accept(hashes.subList(from, Math.min(from + REFERENCE_CHUNK_SIZE, hashes.size())), count);
+            }
+        });
+    }
+
+    // The hash in a store name, null for any other name
+    static String contentHashOf(String filename) {
+        if (filename == null) {
+            return null;
+        }
+        Matcher matcher = CONTENT_NAME.matcher(filename);
+        return matcher.matches() ? matcher.group(1) : null;
+    }
+
+    /**
+     * Moves documents still stored under the flat directory's random names into
+     * the store and points their students at the content name. Files of
+     * another type, or missing ones, are left as they are.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Order(0)
+    public void migrateLegacyDocuments() {
+        Map<String, String> migrated = new HashMap<>();
+        int students = 0;
+        for (Object[] row : studentRepository.findDocumentRows()) {
+            Long id = (Long) row[0];
+            String legacyName = (String) row[1];
+            if (CONTENT_NAME.matcher(legacyName).matches()) {
+                continue;
+            }
+            String filename = migrated.get(legacyName);
+            if (filename == null) {
+                Path file = resolve(legacyName);
+                if (file == null || !Files.isRegularFile(file)) {
+                    continue;
+                }
+                try (InputStream in = Files.newInputStream(file)) {
+                    filename = store(in).filename();
+                } catch (IOException | IllegalArgumentException e) {
+                    System.out.println("Leaving legacy document " + legacyName + " in place: " + e.getMessage());
+                    continue;
+                }
+                migrated.put(legacyName, filename);
+            }
+            String contentName = filename;
+            transactionTemplate.executeWithoutResult(status -> {
+                studentRepository.setTenthClassDocument(id, contentName);
+                retain(contentName);
+            });
+            students++;
+        }
+        // Only once every student has been repointed
+        for (String legacyName : migrated.keySet()) {
+            try {
+                Files.deleteIfExists(resolve(legacyName));
+            } catch (IOException e) {
+                System.out.println("Could not delete legacy document " + legacyName + ": " + e.getMessage());
+            }
+        }
+        if (students > 0) {
+            System.out.println("Moved " + migrated.size() + " legacy documents into the document store ("
+                    + students + " students)");
+            eventPublisher.publishEvent(new DataChangedEvent(DataSet.STUDENTS));
+        }
+    }
+
+    // The document's path, or null when the name would leave the documents directory
+    public Path resolve(String filename) {
+        Matcher matcher = CONTENT_NAME.matcher(filename);
+        if (matcher.matches()) {
+            return blobPath(matcher.group(1), matcher.group(2));
+        }
+        matcher = DERIVATIVE_NAME.matcher(filename);
+        if (matcher.matches()) {
+            return blobPath(matcher.group(1), "." + matcher.group(2) + ".jpg");
+        }
+        Path base = DOCUMENTS_DIR.toAbsolutePath().normalize();
+        Path file = base.resolve(filename).normalize();
+        return base.equals(file.getParent()) ? file : null;
+    }
+
+    public boolean isWriteOnce(String filename) {
+        return CONTENT_NAME.matcher(filename).matches() || DERIVATIVE_NAME.matcher(filename).matches()
+                || LEGACY_NAME.matcher(filename).matches();
+    }
+
+    static boolean isDerivative(String filename) {
+        return DERIVATIVE_NAME.matcher(filename).matches();
+    }
+
+    // kind is "preview" or "thumb"
+    public static String derivativeName(String sha256, String kind) {
+        return sha256 + "." + kind + ".jpg";
+    }
+
+    Object lockFor(String sha256) {
+        return locks[Integer.parseInt(sha256.substring(0, 2), 16) % locks.length];
+    }
+
+    private static Path blobPath(String sha256, String extension) {
+        return DOCUMENTS_DIR.toAbsolutePath().normalize()
+                .resolve(sha256.substring(0, 2)).resolve(sha256.substring(2, 4)).resolve(sha256 + extension);
+    }
+
+    // Strong validator for the file: read off the name in the store, otherwise its SHA-256,
+    // hashed once and kept until the file changes
+    public String getETag(Path file) throws IOException {
+        String filename = file.getFileName().toString();
+        String contentHash = contentHashOf(filename);
+        if (contentHash != null) {
+            return contentHash;
+        }
+        Matcher derivative = DERIVATIVE_NAME.matcher(filename);
+        if (derivative.matches()) {
+            return derivative.group(1) + "-" + derivative.group(2);
+        }
+        long size = Files.size(file);
+        long modified = Files.getLastModifiedTime(file).toMillis();
+        CachedHash cached = hashes.get(filename);
+        if (cached != null && cached.size() == size && cached.modified() == modified) {
+            return cached.sha256();
+        }
+        MessageDigest digest = sha256();
+        ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            while (channel.read(buffer) > 0) {
+                buffer.flip();
+                digest.update(buffer);
+                buffer.clear();
+            }
+        }
+        String sha256 = HexFormat.of().formatHex(digest.digest());
+        hashes.put(filename, new CachedHash(size, modified, sha256));
+        return sha256;
+    }
+
+    // PDF, JPEG or PNG by signature; null for anything else
+    static String sniffContentType(byte[] head, int length) {
+        if (startsWith(head, length, 0x25, 0x50, 0x44, 0x46)) {
+            return "application/pdf";
+        }
+        if (startsWith(head, length, 0xFF, 0xD8, 0xFF)) {
+            return "image/jpeg";
+        }
+        if (startsWith(head, length, 0x89, 0x50, 0x4E, 0x47, 0x0D, 0x0A, 0x1A, 0x0A)) {
+            return "image/png";
+        }
+        return null;
+    }
+
+    static String extensionOf(String contentType) {
+        switch (contentType) {
+            case "application/pdf":
+                return ".pdf";
+            case "image/jpeg":
+                return ".jpg";
+            default:
+                return ".png";
+        }
+    }
+
+    private static boolean startsWith(byte[] head, int length, int... signature) {
+        if (length < signature.length) {
+            return false;
+        }
+        for (int i = 0; i < signature.length; i++) {
+            if ((head[i] & 0xFF) != signature[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
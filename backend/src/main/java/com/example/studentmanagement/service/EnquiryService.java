@@ -4,12 +4,16 @@ import java.util.List;
 import java.util.Optional;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import com.example.studentmanagement.model.Enquiry;
 import com.example.studentmanagement.repository.EnquiryRepository;
 import com.example.studentmanagement.repository.StudentRepository;
+import com.example.studentmanagement.service.DashboardAggregateStore.EnquiryFacts;
+import com.example.studentmanagement.service.DataChangedEvent.DataSet;
+import com.example.studentmanagement.service.DashboardAggregateStore.StudentFacts;
 
 @Service
 public class EnquiryService {
@@ -20,6 +24,18 @@ public class EnquiryService {
     @Autowired
     private StudentRepository studentRepository;
 
+    @Autowired
+    private StudentService studentService;
+
+    @Autowired
+    private DashboardAggregateStore aggregateStore;
+
+    @Autowired
+    private StudentSearchIndex searchIndex;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
     public List<Enquiry> getAllEnquiries() {
         return enquiryRepository.findAll();
     }
@@ -45,7 +61,12 @@ public class EnquiryService {
             enquiry.setConvertedToStudent(false);
         }
 
-        return enquiryRepository.save(enquiry);
+        EnquiryFacts before = enquiry.getId() == null ? null
+                : enquiryRepository.findById(enquiry.getId()).map(EnquiryFacts::of).orElse(null);
+        Enquiry saved = enquiryRepository.save(enquiry);
+        aggregateStore.enquiryChanged(before, EnquiryFacts.of(saved));
+        eventPublisher.publishEvent(new DataChangedEvent(DataSet.ENQUIRIES));
+        return saved;
     }
 
     public Optional<Enquiry> getEnquiryById(Long id) {
@@ -73,6 +94,10 @@ public class EnquiryService {
             student.setEnquiryId(enquiry.getId());
             // Other fields can be set to null or default
             studentRepository.save(student);
+            aggregateStore.studentChanged(null, StudentFacts.of(student));
+            searchIndex.studentSaved(student);
+            eventPublisher.publishEvent(new DataChangedEvent(DataSet.ENQUIRIES));
+            eventPublisher.publishEvent(new DataChangedEvent(DataSet.STUDENTS));
 
             return enquiry;
         }
@@ -81,10 +106,11 @@ public class EnquiryService {
 
     @Transactional
     public void deleteEnquiry(Long id) {
-        if (!enquiryRepository.existsById(id)) {
-            throw new RuntimeException("Enquiry not found with id: " + id);
-        }
-        enquiryRepository.deleteById(id);
+        Enquiry enquiry = enquiryRepository.findById(id)
+                .orElseThrow(() -> new RuntimeException("Enquiry not found with id: " + id));
+        enquiryRepository.delete(enquiry);
+        aggregateStore.enquiryChanged(EnquiryFacts.of(enquiry), null);
+        eventPublisher.publishEvent(new DataChangedEvent(DataSet.ENQUIRIES));
     }
 
     @Transactional
@@ -99,12 +125,15 @@ public class EnquiryService {
             // Find the most recently created student for this phone number
             List<com.example.studentmanagement.model.Student> students = studentRepository.findByPhoneNumberOrderByIdDesc(enquiry.getPhoneNumber());
             if (!students.isEmpty()) {
-                // Delete only the most recently created student
-                studentRepository.deleteById(students.get(0).getId());
+                // Delete only the most recently created student, with its payments, certificates and document
+                studentService.deleteStudents(List.of(students.get(0).getId()), false);
             }
             
             enquiry.setConvertedToStudent(false);
-            return enquiryRepository.save(enquiry);
+            Enquiry saved = enquiryRepository.save(enquiry);
+            eventPublisher.publishEvent(new DataChangedEvent(DataSet.ENQUIRIES));
+            eventPublisher.publishEvent(new DataChangedEvent(DataSet.STUDENTS));
+            return saved;
         }
         throw new RuntimeException("Enquiry not found with id: " + id);
     }
@@ -0,0 +1,86 @@
+package com.example.studentmanagement.service;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Writes export rows one at a time as CSV (RFC 4180, header first) or as
+ * JSON lines. Nothing is buffered beyond the output buffer itself, so memory
+ * does not depend on how many rows are written.
+ */
+class ExportWriter implements Closeable {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final String[] columns;
+    private final BufferedWriter writer;
+    private final JsonGenerator json;
+
+    ExportWriter(OutputStream out, String format, ObjectMapper objectMapper, String... columns) throws IOException {
+        this.columns = columns;
+        this.writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), BUFFER_SIZE);
+        if (format.equals("csv")) {
+            this.json = null;
+            writeCsvRecord(columns);
+        } else {
+            // Dates and numbers go through the application's mapper, as in the JSON endpoints
+            this.json = objectMapper.getFactory().createGenerator(writer);
+            this.json.setRootValueSeparator(null);
+            this.json.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        }
+    }
+
+    // One value per column, in column order
+    void row(Object... values) throws IOException {
+        if (json == null) {
+            writeCsvRecord(values);
+            return;
+        }
+        json.writeStartObject();
+        for (int i = 0; i < columns.length; i++) {
+            json.writeObjectField(columns[i], values[i]);
+        }
+        json.writeEndObject();
+        json.writeRaw('\n');
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (json != null) {
+            json.close();
+        }
+        writer.flush();
+    }
+
+    private void writeCsvRecord(Object[] values) throws IOException {
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) {
+                writer.write(',');
+            }
+            writeCsvValue(values[i]);
+        }
+        writer.write("\r\n");
+    }
+
+    private void writeCsvValue(Object value) throws IOException {
+        if (value == null) {
+            return;
+        }
+        String text = value instanceof BigDecimal decimal ? decimal.toPlainString() : value.toString();
+        if (text.indexOf(',') < 0 && text.indexOf('"') < 0 && text.indexOf('\n') < 0 && text.indexOf('\r') < 0) {
+            writer.write(text);
+            return;
+        }
+        writer.write('"');
+        writer.write(text.replace("\"", "\"\""));
+        writer.write('"');
+    }
+}
@@ -1,15 +1,25 @@
 package com.example.studentmanagement.service;
 
+import java.math.BigDecimal;
 import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import com.example.studentmanagement.model.Payment;
+import com.example.studentmanagement.repository.PaymentListItem;
 import com.example.studentmanagement.repository.PaymentRepository;
 import com.example.studentmanagement.repository.StudentRepository;
+import com.example.studentmanagement.service.DataChangedEvent.DataSet;
+import com.example.studentmanagement.service.RevenueIndex.PaymentFacts;
 
 @Service
 public class PaymentService {
@@ -20,18 +30,47 @@ public class PaymentService {
     @Autowired
     private StudentRepository studentRepository;
 
+    @Autowired
+    private StudentService studentService;
+
+    @Autowired
+    private RevenueIndex revenueIndex;
+
+    @Autowired
+    private ReceiptNumberAllocator receiptNumberAllocator;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    // Not @Transactional: the receipt number is taken before the payment's transaction
+    // opens, so a block refill never waits for a connection while holding one
     public Payment createPayment(Payment payment) {
         // Set receipt number based on manual entry or auto-generation
         if (payment.getManualReceiptNumber() != null && !payment.getManualReceiptNumber().trim().isEmpty()) {
+            checkReceiptNumberFree(payment.getManualReceiptNumber(), null);
             payment.setReceiptNumber(payment.getManualReceiptNumber());
             payment.setIsManualReceipt(true);
         } else {
-            payment.setReceiptNumber(generateReceiptNumber(payment));
+            // Skip any number someone already typed in as a manual receipt
+            String receiptNumber = receiptNumberAllocator.next();
+            while (paymentRepository.findIdByReceiptKey(Payment.normalizeReceiptNumber(receiptNumber)).isPresent()) {
+                receiptNumber = receiptNumberAllocator.next();
+            }
+            payment.setReceiptNumber(receiptNumber);
             payment.setIsManualReceipt(false);
         }
         payment.setPaymentDate(LocalDateTime.now());
         payment.setStatus("PAID");
-        return paymentRepository.save(payment);
+        return transactionTemplate.execute(status -> {
+            Payment saved = paymentRepository.save(payment);
+            studentService.addToPaidAmount(saved.getStudent().getId(), amountOf(saved));
+            revenueIndex.paymentChanged(null, PaymentFacts.of(saved));
+            eventPublisher.publishEvent(new DataChangedEvent(DataSet.PAYMENTS));
+            return saved;
+        });
     }
 
     public List<Payment> getPaymentsByStudentId(Long studentId) {
@@ -42,13 +81,20 @@ public class PaymentService {
         return paymentRepository.findAll();
     }
 
+    public List<PaymentListItem> getPaymentListItems() {
+        return paymentRepository.findListItems();
+    }
+
     public Payment getPaymentById(Long id) {
         return paymentRepository.findById(id).orElse(null);
     }
 
+    @Transactional
     public Payment updatePayment(Long id, Payment paymentDetails) {
         Payment payment = paymentRepository.findById(id).orElse(null);
         if (payment != null) {
+            PaymentFacts before = PaymentFacts.of(payment);
+            BigDecimal amountBefore = amountOf(payment);
             // Only update fields that are provided (not null)
             if (paymentDetails.getAmount() != null) {
                 payment.setAmount(paymentDetails.getAmount());
@@ -68,34 +114,79 @@ public class PaymentService {
                 payment.setPaymentDate(paymentDetails.getPaymentDate());
             }
             
-            // Update receipt number - handle both direct receipt number and manual receipt number
-            if (paymentDetails.getReceiptNumber() != null && !paymentDetails.getReceiptNumber().trim().isEmpty()) {
-                payment.setReceiptNumber(paymentDetails.getReceiptNumber());
-                payment.setManualReceiptNumber(paymentDetails.getReceiptNumber());
-                payment.setIsManualReceipt(true);
-            } else if (paymentDetails.getManualReceiptNumber() != null && !paymentDetails.getManualReceiptNumber().trim().isEmpty()) {
-                payment.setReceiptNumber(paymentDetails.getManualReceiptNumber());
-                payment.setManualReceiptNumber(paymentDetails.getManualReceiptNumber());
+            // Update receipt number - handle both direct receipt number and manual receipt number.
+            // Resending the number the payment already has is not a change.
+            String receiptNumber = paymentDetails.getReceiptNumber() != null && !paymentDetails.getReceiptNumber().trim().isEmpty()
+                    ? paymentDetails.getReceiptNumber() : paymentDetails.getManualReceiptNumber();
+            String receiptKey = Payment.normalizeReceiptNumber(receiptNumber);
+            if (receiptKey != null && !receiptKey.equals(Payment.normalizeReceiptNumber(payment.getReceiptNumber()))) {
+                checkReceiptNumberFree(receiptNumber, id);
+                payment.setReceiptNumber(receiptNumber);
+                payment.setManualReceiptNumber(receiptNumber);
                 payment.setIsManualReceipt(true);
             }
             
-            return paymentRepository.save(payment);
+            Payment saved = paymentRepository.save(payment);
+            studentService.addToPaidAmount(saved.getStudent().getId(), amountOf(saved).subtract(amountBefore));
+            revenueIndex.paymentChanged(before, PaymentFacts.of(saved));
+            eventPublisher.publishEvent(new DataChangedEvent(DataSet.PAYMENTS));
+            // The balance update clears the persistence context; reload so the student is attached and current
+            return paymentRepository.findById(id).orElse(saved);
         }
         return null;
     }
 
+    @Transactional
     public void deletePayment(Long id) {
-        paymentRepository.deleteById(id);
+        paymentRepository.findById(id).ifPresent(payment -> {
+            paymentRepository.delete(payment);
+            studentService.addToPaidAmount(payment.getStudent().getId(), amountOf(payment).negate());
+            revenueIndex.paymentChanged(PaymentFacts.of(payment), null);
+            eventPublisher.publishEvent(new DataChangedEvent(DataSet.PAYMENTS));
+        });
+    }
+
+    // Receipt numbers are unique regardless of case and surrounding spaces
+    private void checkReceiptNumberFree(String receiptNumber, Long paymentId) {
+        paymentRepository.findIdByReceiptKey(Payment.normalizeReceiptNumber(receiptNumber))
+                .filter(id -> !id.equals(paymentId))
+                .ifPresent(id -> {
+                    throw new IllegalStateException("Receipt number " + receiptNumber.trim() + " is already in use");
+                });
+    }
+
+    // Payments saved before receipt_key existed get their key once, at startup. Legacy
+    // duplicates are reported once and given a key of their own, since the key is unique.
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    public void backfillReceiptKeys() {
+        List<Object[]> rows = paymentRepository.findRowsWithoutReceiptKey();
+        int skipped = 0;
+        Set<String> assigned = new HashSet<>();
+        for (Object[] row : rows) {
+            String key = Payment.normalizeReceiptNumber((String) row[1]);
+            if (key == null) {
+                continue;
+            }
+            if (!assigned.add(key) || paymentRepository.findIdByReceiptKey(key).isPresent()) {
+                System.out.println("Duplicate receipt number " + row[1] + " on payment " + row[0] + " left unindexed");
+                // Keys are upper-cased, so this never matches a lookup or a real receipt number
+                paymentRepository.setReceiptKey((Long) row[0], "duplicate-" + row[0]);
+                skipped++;
+                continue;
+            }
+            paymentRepository.setReceiptKey((Long) row[0], key);
+        }
+        if (!rows.isEmpty()) {
+            System.out.println("Receipt keys backfilled: " + (rows.size() - skipped) + " payments");
+        }
     }
 
     public List<Payment> getStudentLedger(Long studentId) {
         return paymentRepository.findByStudentIdOrderByPaymentDateDesc(studentId);
     }
 
-    private String generateReceiptNumber(Payment payment) {
-        // Format: REC-YYYYMMDD-XXXX where XXXX is a sequential number
-        String date = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd"));
-        String sequence = String.format("%04d", paymentRepository.count() + 1);
-        return "REC-" + date + "-" + sequence;
+    private static BigDecimal amountOf(Payment payment) {
+        return payment.getAmount() == null ? BigDecimal.ZERO : BigDecimal.valueOf(payment.getAmount());
     }
-} 
\ No newline at end of file
+}
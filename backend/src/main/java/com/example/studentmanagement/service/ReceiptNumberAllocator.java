@@ -0,0 +1,117 @@
+package com.example.studentmanagement.service;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.studentmanagement.model.ReceiptCounter;
+import com.example.studentmanagement.repository.PaymentRepository;
+import com.example.studentmanagement.repository.ReceiptCounterRepository;
+
+import jakarta.annotation.PostConstruct;
+
+/**
+ * Hands out REC-yyyyMMdd-NNNN receipt numbers, numbered per day. Numbers are
+ * reserved from the receipt_counters table a block at a time (hi-lo) and then
+ * served from memory, so a payment costs an atomic increment and the counter
+ * row is only locked once per block. A restart abandons the rest of the
+ * current block: numbers stay unique but may skip.
+ *
+ * Call {@link #next()} outside any transaction: a refill needs a connection of
+ * its own, and callers queued behind it must not be sitting on pooled ones.
+ */
+@Component
+public class ReceiptNumberAllocator {
+
+    private static final int BLOCK_SIZE = 20;
+    private static final DateTimeFormatter DAY = DateTimeFormatter.ofPattern("yyyyMMdd");
+
+    @Autowired
+    private ReceiptCounterRepository counterRepository;
+
+    @Autowired
+    private PaymentRepository paymentRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    // Reservations commit on their own, so the row lock is never held for a whole payment
+    private TransactionTemplate reserveTransaction;
+
+    private record Block(String day, AtomicLong next, long limit) {
+    }
+
+    private final AtomicReference<Block> current = new AtomicReference<>();
+
+    @PostConstruct
+    public void init() {
+        reserveTransaction = new TransactionTemplate(transactionManager);
+        reserveTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    public String next() {
+        String day = LocalDate.now().format(DAY);
+        while (true) {
+            Block block = current.get();
+            if (block != null && block.day().equals(day)) {
+                long value = block.next().getAndIncrement();
+                if (value < block.limit()) {
+                    return "REC-" + day + "-" + String.format("%04d", value);
+                }
+            }
+            refill(day, block);
+        }
+    }
+
+    private synchronized void refill(String day, Block exhausted) {
+        // Another thread may have refilled while we waited for the lock
+        if (current.get() != exhausted) {
+            return;
+        }
+        long start = reserve(day);
+        current.set(new Block(day, new AtomicLong(start), start + BLOCK_SIZE));
+    }
+
+    // First number of a freshly reserved block
+    private long reserve(String day) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return reserveTransaction.execute(status -> {
+                    ReceiptCounter counter = counterRepository.findForUpdate(day)
+                            .orElseGet(() -> new ReceiptCounter(day, firstUnusedNumber(day)));
+                    long start = counter.getNextValue();
+                    counter.setNextValue(start + BLOCK_SIZE);
+                    counterRepository.saveAndFlush(counter);
+                    return start;
+                });
+            } catch (DataIntegrityViolationException e) {
+                // Another instance created the day's row first; its row now exists to lock
+                if (attempt == 3) {
+                    throw e;
+                }
+            }
+        }
+    }
+
+    // Continue after receipts already issued today, e.g. by the count-based numbering this replaced
+    private long firstUnusedNumber(String day) {
+        String prefix = "REC-" + day + "-";
+        long highest = 0;
+        for (String receiptNumber : paymentRepository.findReceiptNumbersStartingWith(prefix)) {
+            try {
+                highest = Math.max(highest, Long.parseLong(receiptNumber.substring(prefix.length())));
+            } catch (NumberFormatException e) {
+                // A manual receipt that only looks like ours
+            }
+        }
+        return highest + 1;
+    }
+}
@@ -0,0 +1,131 @@
+package com.example.studentmanagement.service;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.example.studentmanagement.repository.EnquiryRepository;
+import com.example.studentmanagement.repository.PaymentListItem;
+import com.example.studentmanagement.repository.PaymentRepository;
+import com.example.studentmanagement.repository.StudentListItem;
+import com.example.studentmanagement.repository.StudentRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Report exports streamed from a database cursor straight into the response.
+ * Rows are constructor-expression projections, so Hibernate does not keep
+ * them in the persistence context, and each one is written out before the
+ * next is fetched. Memory stays flat however many years are exported.
+ *
+ * The columns match the keys of the corresponding JSON report endpoints.
+ */
+@Service
+public class ReportExportService {
+
+    @Autowired
+    private StudentRepository studentRepository;
+
+    @Autowired
+    private PaymentRepository paymentRepository;
+
+    @Autowired
+    private EnquiryRepository enquiryRepository;
+
+    @Autowired
+    private RevenueIndex revenueIndex;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    // Students with fees outstanding, optionally only those admitted in the months from..to
+    @Transactional(readOnly = true)
+    public long exportPendingFees(YearMonth from, YearMonth to, String format, OutputStream out, AtomicLong progress) throws IOException {
+        try (Stream<StudentListItem> rows = from == null
+                ? studentRepository.streamPendingFeeItems()
+                : studentRepository.streamPendingFeeItemsAdmittedBetween(from.atDay(1), to.plusMonths(1).atDay(1));
+                ExportWriter writer = new ExportWriter(out, format, objectMapper,
+                        "studentName", "course", "pendingAmount", "admissionDate")) {
+            return write(rows, progress, row -> writer.row(row.name(), row.courses(), row.remainingAmount(),
+                    row.admissionDate()));
+        }
+    }
+
+    // Students admitted in the months from..to
+    @Transactional(readOnly = true)
+    public long exportStudentsByMonth(YearMonth from, YearMonth to, String format, OutputStream out, AtomicLong progress) throws IOException {
+        try (Stream<StudentListItem> rows = studentRepository.streamListItemsAdmittedBetween(
+                from.atDay(1), to.plusMonths(1).atDay(1));
+                ExportWriter writer = new ExportWriter(out, format, objectMapper,
+                        "admissionDate", "name", "fatherName", "courses", "phoneNumber")) {
+            return write(rows, progress, row -> writer.row(row.admissionDate(), row.name(), row.fatherName(), row.courses(),
+                    row.phoneNumber()));
+        }
+    }
+
+    // Individual payments made on the days from..to, the detail behind the monthly payment report
+    @Transactional(readOnly = true)
+    public long exportPayments(LocalDate from, LocalDate to, String format, OutputStream out, AtomicLong progress) throws IOException {
+        try (Stream<PaymentListItem> rows = paymentRepository.streamListItemsPaidBetween(
+                from.atStartOfDay(), to.plusDays(1).atStartOfDay());
+                ExportWriter writer = new ExportWriter(out, format, objectMapper,
+                        "month", "paymentDate", "receiptNumber", "amount", "paymentMethod", "status",
+                        "studentId", "studentName")) {
+            return write(rows, progress, row -> writer.row(YearMonth.from(row.paymentDate()).toString(), row.paymentDate(),
+                    row.receiptNumber(), row.amount(), row.paymentMethod(), row.status(),
+                    row.student() == null ? null : row.student().id(),
+                    row.student() == null ? null : row.student().name()));
+        }
+    }
+
+    // Enquiries taken on the days from..to
+    @Transactional(readOnly = true)
+    public long exportEnquiries(LocalDate from, LocalDate to, String format, OutputStream out, AtomicLong progress)
+            throws IOException {
+        try (Stream<Object[]> rows = enquiryRepository.streamExportRows(from, to);
+                ExportWriter writer = new ExportWriter(out, format, objectMapper,
+                        "dateOfEnquiry", "name", "fatherName", "phoneNumber", "course", "courseDuration",
+                        "convertedToStudent", "takenBy", "remarks")) {
+            return write(rows, progress, row -> writer.row(row));
+        }
+    }
+
+    // Revenue per day, week or month bucket; served from the revenue index, not the payments table
+    public long exportRevenue(LocalDate from, LocalDate to, String granularity, String format, OutputStream out,
+            AtomicLong progress) throws IOException {
+        @SuppressWarnings("unchecked")
+        List<Map<String, Object>> buckets = (List<Map<String, Object>>) revenueIndex
+                .getRevenueSeries(from, to, granularity).get("buckets");
+        try (ExportWriter writer = new ExportWriter(out, format, objectMapper, "start", "end", "total")) {
+            return write(buckets.stream(), progress,
+                    bucket -> writer.row(bucket.get("start"), bucket.get("end"), bucket.get("total")));
+        }
+    }
+
+    private interface RowSink<T> {
+        void write(T row) throws IOException;
+    }
+
+    // Also stops early when the thread is interrupted, which is how report jobs are cancelled
+    private static <T> long write(Stream<T> rows, AtomicLong progress, RowSink<T> sink) throws IOException {
+        long count = 0;
+        for (T row : (Iterable<T>) rows::iterator) {
+            if (Thread.currentThread().isInterrupted()) {
+                throw new InterruptedIOException("Export cancelled after " + count + " rows");
+            }
+            sink.write(row);
+            count++;
+            progress.incrementAndGet();
+        }
+        return count;
+    }
+}
@@ -0,0 +1,402 @@
+package com.example.studentmanagement.service;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Stream;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Runs large reports in the background instead of on a request thread. A job
+ * is queued on a small bounded worker pool, writes its rows to a file under
+ * report-jobs/ and can then be downloaded. Jobs live in memory only: files
+ * left by a previous run are removed at startup, and finished jobs are
+ * dropped after a day.
+ */
+@Service
+public class ReportJobService {
+
+    private static final int WORKERS = 2;
+    private static final int QUEUE_CAPACITY = 20;
+    private static final int MAX_RETAINED_JOBS = 200;
+    private static final Duration RETENTION = Duration.ofHours(24);
+    private static final long PROGRESS_INTERVAL_MILLIS = 1000;
+    private static final Path JOBS_DIR = Paths.get("report-jobs");
+
+    public enum Status {
+        QUEUED, RUNNING, DONE, FAILED, CANCELLED
+    }
+
+    @Autowired
+    private ReportExportService reportExportService;
+
+    private final Map<String, ReportJob> jobs = new ConcurrentHashMap<>();
+
+    // A full queue rejects new jobs rather than letting the backlog grow without bound
+    private final ThreadPoolExecutor workers = new ThreadPoolExecutor(WORKERS, WORKERS, 60, TimeUnit.SECONDS,
+            new ArrayBlockingQueue<>(QUEUE_CAPACITY), r -> {
+                Thread thread = new Thread(r, "report-job");
+                thread.setDaemon(true);
+                return thread;
+            }, new ThreadPoolExecutor.AbortPolicy());
+
+    // Expires old jobs and drives the progress streams
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "report-job-scheduler");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private interface Export {
+        long writeTo(OutputStream out, AtomicLong progress) throws IOException;
+    }
+
+    public class ReportJob {
+        private final String id = UUID.randomUUID().toString();
+        private final String type;
+        private final String format;
+        private final Map<String, String> definition;
+        private final Export export;
+        private final LocalDateTime createdAt = LocalDateTime.now();
+        private final AtomicLong rowsWritten = new AtomicLong();
+        private volatile Status status = Status.QUEUED;
+        private volatile LocalDateTime startedAt;
+        private volatile LocalDateTime finishedAt;
+        private volatile String error;
+        private volatile long fileSize;
+        private volatile Future<?> future;
+
+        ReportJob(String type, String format, Map<String, String> definition, Export export) {
+            this.type = type;
+            this.format = format;
+            this.definition = definition;
+            this.export = export;
+        }
+
+        public String getId() {
+            return id;
+        }
+
+        public Status getStatus() {
+            return status;
+        }
+
+        public Path getFile() {
+            return JOBS_DIR.resolve(id + "." + format);
+        }
+
+        public String getFilename() {
+            return type + "-" + id.substring(0, 8) + "." + format;
+        }
+
+        public String getFormat() {
+            return format;
+        }
+
+        boolean isFinished() {
+            return status == Status.DONE || status == Status.FAILED || status == Status.CANCELLED;
+        }
+
+        public Map<String, Object> toMap() {
+            Map<String, Object> map = new HashMap<>();
+            map.put("id", id);
+            map.put("type", type);
+            map.put("format", format);
+            map.put("definition", definition);
+            map.put("status", status);
+            map.put("rowsWritten", rowsWritten.get());
+            map.put("createdAt", createdAt);
+            map.put("startedAt", startedAt);
+            map.put("finishedAt", finishedAt);
+            if (status == Status.QUEUED) {
+                map.put("queuePosition", queuePosition(this));
+            }
+            if (status == Status.DONE) {
+                map.put("fileSize", fileSize);
+                map.put("downloadUrl", "/api/report-jobs/" + id + "/download");
+            }
+            if (error != null) {
+                map.put("error", error);
+            }
+            return map;
+        }
+
+        private void run() {
+            synchronized (this) {
+                if (status != Status.QUEUED) {
+                    return;
+                }
+                status = Status.RUNNING;
+                startedAt = LocalDateTime.now();
+            }
+            Path part = JOBS_DIR.resolve(id + ".part");
+            try {
+                try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(part))) {
+                    export.writeTo(out, rowsWritten);
+                }
+                synchronized (this) {
+                    if (status == Status.RUNNING) {
+                        Files.move(part, getFile(), StandardCopyOption.REPLACE_EXISTING);
+                        fileSize = Files.size(getFile());
+                        finishedAt = LocalDateTime.now();
+                        status = Status.DONE;
+                    }
+                }
+            } catch (InterruptedIOException e) {
+                finish(Status.CANCELLED, null);
+            } catch (Exception e) {
+                System.out.println("Report job " + id + " failed: " + e.getMessage());
+                finish(Status.FAILED, e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName());
+            } finally {
+                deleteQuietly(part);
+                if (status == Status.CANCELLED) {
+                    deleteQuietly(getFile());
+                }
+            }
+        }
+
+        private synchronized void finish(Status finalStatus, String message) {
+            if (!isFinished()) {
+                finishedAt = LocalDateTime.now();
+                status = finalStatus;
+                error = message;
+            }
+        }
+    }
+
+    @PostConstruct
+    public void init() throws IOException {
+        Files.createDirectories(JOBS_DIR);
+        try (Stream<Path> leftovers = Files.list(JOBS_DIR)) {
+            leftovers.forEach(ReportJobService::deleteQuietly);
+        }
+        scheduler.scheduleAtFixedRate(this::expireOldJobs, 1, 1, TimeUnit.HOURS);
+    }
+
+    // Throws IllegalArgumentException for a bad definition, RejectedExecutionException when the queue is full
+    public ReportJob submit(Map<String, String> definition) {
+        String type = definition.get("type");
+        String format = definition.getOrDefault("format", "csv");
+        if (!format.equals("csv") && !format.equals("ndjson")) {
+            throw new IllegalArgumentException("format must be csv or ndjson");
+        }
+        ReportJob job = new ReportJob(type, format, Collections.unmodifiableMap(new HashMap<>(definition)), exportFor(type, format, definition));
+
+        if (jobs.size() >= MAX_RETAINED_JOBS) {
+            expireOldJobs();
+        }
+        if (jobs.size() >= MAX_RETAINED_JOBS) {
+            throw new RejectedExecutionException("Too many report jobs are being kept; delete some first");
+        }
+        jobs.put(job.id, job);
+        try {
+            job.future = workers.submit(job::run);
+        } catch (RejectedExecutionException e) {
+            jobs.remove(job.id);
+            throw new RejectedExecutionException("Report queue is full, try again later");
+        }
+        return job;
+    }
+
+    public ReportJob getJob(String id) {
+        return jobs.get(id);
+    }
+
+    // Newest first
+    public List<Map<String, Object>> getJobs() {
+        List<ReportJob> sorted = new ArrayList<>(jobs.values());
+        sorted.sort(Comparator.comparing((ReportJob job) -> job.createdAt).reversed());
+        List<Map<String, Object>> result = new ArrayList<>();
+        sorted.forEach(job -> result.add(job.toMap()));
+        return result;
+    }
+
+    // Cancels the job if it has not finished and forgets it, deleting its file
+    public boolean deleteJob(String id) {
+        ReportJob job = jobs.remove(id);
+        if (job == null) {
+            return false;
+        }
+        job.finish(Status.CANCELLED, null);
+        Future<?> future = job.future;
+        if (future != null) {
+            // A queued job is dropped from the queue; a running one stops at its next row
+            future.cancel(true);
+            workers.remove((Runnable) future);
+        }
+        deleteQuietly(job.getFile());
+        return true;
+    }
+
+    // Sends the job's state every second until it finishes
+    public SseEmitter subscribe(ReportJob job) {
+        SseEmitter emitter = new SseEmitter(0L);
+        AtomicReference<ScheduledFuture<?>> ticker = new AtomicReference<>();
+        Runnable send = () -> {
+            try {
+                emitter.send(SseEmitter.event().name("progress").data(job.toMap()));
+                if (job.isFinished()) {
+                    emitter.complete();
+                    cancelTicker(ticker);
+                }
+            } catch (IOException | IllegalStateException e) {
+                cancelTicker(ticker);
+            }
+        };
+        emitter.onCompletion(() -> cancelTicker(ticker));
+        emitter.onTimeout(() -> cancelTicker(ticker));
+        emitter.onError(e -> cancelTicker(ticker));
+        // A tick that runs before the handle is stored cannot cancel; the next one will
+        ticker.set(scheduler.scheduleAtFixedRate(send, 0, PROGRESS_INTERVAL_MILLIS, TimeUnit.MILLISECONDS));
+        return emitter;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        workers.shutdownNow();
+        scheduler.shutdownNow();
+    }
+
+    private static void cancelTicker(AtomicReference<ScheduledFuture<?>> ticker) {
+        ScheduledFuture<?> future = ticker.get();
+        if (future != null) {
+            future.cancel(false);
+        }
+    }
+
+    private int queuePosition(ReportJob job) {
+        int position = 1;
+        for (Runnable queued : workers.getQueue()) {
+            if (queued == job.future) {
+                return position;
+            }
+            position++;
+        }
+        return 0;
+    }
+
+    private void expireOldJobs() {
+        LocalDateTime cutoff = LocalDateTime.now().minus(RETENTION);
+        for (ReportJob job : jobs.values()) {
+            if (job.isFinished() && job.finishedAt != null && job.finishedAt.isBefore(cutoff)) {
+                deleteJob(job.id);
+            }
+        }
+    }
+
+    private Export exportFor(String type, String format, Map<String, String> definition) {
+        if (type == null) {
+            throw new IllegalArgumentException("type is required");
+        }
+        switch (type) {
+            case "pending-fees": {
+                YearMonth from = month(definition, "from", false);
+                YearMonth to = definition.containsKey("to") ? month(definition, "to", true) : from;
+                if (from == null && to != null) {
+                    throw new IllegalArgumentException("to requires from");
+                }
+                checkOrder(from, to);
+                return (out, progress) -> reportExportService.exportPendingFees(from, to, format, out, progress);
+            }
+            case "students-by-month": {
+                YearMonth from = month(definition, "from", true);
+                YearMonth to = definition.containsKey("to") ? month(definition, "to", true) : from;
+                checkOrder(from, to);
+                return (out, progress) -> reportExportService.exportStudentsByMonth(from, to, format, out, progress);
+            }
+            case "payments": {
+                LocalDate from = date(definition, "from");
+                LocalDate to = date(definition, "to");
+                checkOrder(from, to);
+                return (out, progress) -> reportExportService.exportPayments(from, to, format, out, progress);
+            }
+            case "enquiries": {
+                LocalDate from = date(definition, "from");
+                LocalDate to = date(definition, "to");
+                checkOrder(from, to);
+                return (out, progress) -> reportExportService.exportEnquiries(from, to, format, out, progress);
+            }
+            case "revenue": {
+                LocalDate from = date(definition, "from");
+                LocalDate to = date(definition, "to");
+                String granularity = definition.getOrDefault("granularity", "month");
+                if (!Set.of("day", "week", "month").contains(granularity)) {
+                    throw new IllegalArgumentException("granularity must be day, week or month");
+                }
+                checkOrder(from, to);
+                RevenueIndex.checkBucketCount(from, to, granularity);
+                return (out, progress) -> reportExportService.exportRevenue(from, to, granularity, format, out,
+                        progress);
+            }
+            default:
+                throw new IllegalArgumentException("Unknown report type: " + type);
+        }
+    }
+
+    private static YearMonth month(Map<String, String> definition, String key, boolean required) {
+        String value = definition.get(key);
+        if (value == null) {
+            if (required) {
+                throw new IllegalArgumentException(key + " (YYYY-MM) is required");
+            }
+            return null;
+        }
+        return YearMonth.parse(value);
+    }
+
+    private static LocalDate date(Map<String, String> definition, String key) {
+        String value = definition.get(key);
+        if (value == null) {
+            throw new IllegalArgumentException(key + " (YYYY-MM-DD) is required");
+        }
+        return LocalDate.parse(value);
+    }
+
+    private static <T extends Comparable<? super T>> void checkOrder(T from, T to) {
+        if (from != null && to != null && to.compareTo(from) < 0) {
+            throw new IllegalArgumentException("to must not be before from");
+        }
+    }
+
+    private static void deleteQuietly(Path path) {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            System.out.println("Could not delete " + path + ": " + e.getMessage());
+        }
+    }
+}
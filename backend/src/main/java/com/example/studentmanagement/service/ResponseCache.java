@@ -0,0 +1,115 @@
+package com.example.studentmanagement.service;
+
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.example.studentmanagement.service.DataChangedEvent.DataSet;
+
+/**
+ * Bounded LRU cache for dashboard and report responses. Entries expire after a
+ * short TTL and are dropped as soon as a write touches one of the data sets
+ * they were computed from.
+ */
+@Component
+public class ResponseCache {
+
+    private static final int MAX_ENTRIES = 500;
+    private static final long TTL_MILLIS = 60_000;
+
+    private record Entry(Object value, Set<DataSet> dependsOn, long expiresAt) {
+    }
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder expirations = new LongAdder();
+    private final LongAdder invalidations = new LongAdder();
+
+    // Access-ordered, so the eldest entry is the least recently used; guarded by "this"
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(64, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+            if (size() > MAX_ENTRIES) {
+                evictions.increment();
+                return true;
+            }
+            return false;
+        }
+    };
+
+    // Bumped on every write to a data set; guarded by "this"
+    private final Map<DataSet, Long> generations = new EnumMap<>(DataSet.class);
+
+    // Cached value for the key, computing and storing it on a miss
+    @SuppressWarnings("unchecked")
+    public <T> T get(String key, Set<DataSet> dependsOn, Supplier<T> loader) {
+        long[] generationsBefore;
+        synchronized (this) {
+            Entry entry = entries.get(key);
+            if (entry != null) {
+                if (entry.expiresAt() > System.currentTimeMillis()) {
+                    hits.increment();
+                    return (T) entry.value();
+                }
+                entries.remove(key);
+                expirations.increment();
+            }
+            generationsBefore = generationsOf(dependsOn);
+        }
+        misses.increment();
+
+        T value = loader.get();
+        synchronized (this) {
+            // A write that landed while we were loading makes this value stale
+            if (Arrays.equals(generationsBefore, generationsOf(dependsOn))) {
+                entries.put(key, new Entry(value, dependsOn, System.currentTimeMillis() + TTL_MILLIS));
+            }
+        }
+        return value;
+    }
+
+    // Before DataVersions moves the ETag on, so a request that sees the new tag never gets the old body
+    @TransactionalEventListener(fallbackExecution = true)
+    @Order(0)
+    public synchronized void onDataChanged(DataChangedEvent event) {
+        generations.merge(event.dataSet(), 1L, Long::sum);
+        int before = entries.size();
+        entries.values().removeIf(entry -> entry.dependsOn().contains(event.dataSet()));
+        invalidations.add(before - entries.size());
+    }
+
+    public synchronized Map<String, Object> getStats() {
+        long hitCount = hits.sum();
+        long missCount = misses.sum();
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("size", entries.size());
+        stats.put("maxEntries", MAX_ENTRIES);
+        stats.put("ttlSeconds", TTL_MILLIS / 1000);
+        stats.put("hits", hitCount);
+        stats.put("misses", missCount);
+        stats.put("hitRatio", hitCount + missCount == 0 ? 0.0 : (double) hitCount / (hitCount + missCount));
+        stats.put("evictions", evictions.sum());
+        stats.put("expirations", expirations.sum());
+        stats.put("invalidations", invalidations.sum());
+        return stats;
+    }
+
+    // Caller holds the lock
+    private long[] generationsOf(Set<DataSet> dataSets) {
+        long[] result = new long[DataSet.values().length];
+        for (DataSet dataSet : dataSets) {
+            result[dataSet.ordinal()] = generations.getOrDefault(dataSet, 0L);
+        }
+        return result;
+    }
+}
@@ -0,0 +1,235 @@
+package com.example.studentmanagement.service;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.example.studentmanagement.model.Payment;
+import com.example.studentmanagement.repository.PaymentRepository;
+
+/**
+ * Day-indexed revenue totals held in a Fenwick tree, so the collection for any
+ * date range is two O(log n) prefix sums and a payment write is one O(log n)
+ * point update. Slot i holds the paise collected on epoch day i.
+ */
+@Service
+public class RevenueIndex {
+
+    @Autowired
+    private PaymentRepository paymentRepository;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // Raw per-day totals (kept so the tree can be rebuilt when it grows) and the tree itself
+    private long[] daily = new long[0];
+    private long[] tree = new long[1];
+    // Every payment with an amount, dated or not
+    private long totalPaise;
+
+    // Snapshot of the fields the index depends on, taken before a payment is modified
+    public record PaymentFacts(LocalDateTime paymentDate, Double amount) {
+        public static PaymentFacts of(Payment payment) {
+            return payment == null ? null : new PaymentFacts(payment.getPaymentDate(), payment.getAmount());
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void rebuild() {
+        long[] rebuilt = new long[capacityFor(LocalDate.now().toEpochDay())];
+        long total = 0;
+        try (Stream<Object[]> rows = paymentRepository.streamAggregateRows()) {
+            for (Object[] row : (Iterable<Object[]>) rows::iterator) {
+                LocalDateTime paymentDate = (LocalDateTime) row[0];
+                Double amount = (Double) row[1];
+                if (amount != null) {
+                    total += toPaise(amount);
+                }
+                if (paymentDate == null || amount == null || paymentDate.toLocalDate().toEpochDay() < 0) {
+                    continue;
+                }
+                int day = (int) paymentDate.toLocalDate().toEpochDay();
+                if (day >= rebuilt.length) {
+                    rebuilt = Arrays.copyOf(rebuilt, capacityFor(day));
+                }
+                rebuilt[day] += toPaise(amount);
+            }
+        }
+        lock.writeLock().lock();
+        try {
+            daily = rebuilt;
+            tree = buildTree(rebuilt);
+            totalPaise = total;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        System.out.println("Revenue index loaded: " + daily.length + " day slots");
+    }
+
+    // A null "before" means the payment was created, a null "after" that it was deleted.
+    public void paymentChanged(PaymentFacts before, PaymentFacts after) {
+        TransactionHooks.afterCommit(() -> {
+            lock.writeLock().lock();
+            try {
+                apply(before, -1);
+                apply(after, 1);
+            } finally {
+                lock.writeLock().unlock();
+            }
+        });
+    }
+
+    // Total collected on the days from..to, both inclusive
+    public double getRevenue(LocalDate from, LocalDate to) {
+        if (to.isBefore(from)) {
+            return 0.0;
+        }
+        lock.readLock().lock();
+        try {
+            return (prefixSum(to.toEpochDay()) - prefixSum(from.toEpochDay() - 1)) / 100.0;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // All payments ever recorded, including any without a date
+    public double getTotalRevenue() {
+        lock.readLock().lock();
+        try {
+            return totalPaise / 100.0;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Totals for consecutive day/week/month buckets covering from..to; throws IllegalArgumentException
+    // for more than AnalyticsService.MAX_BUCKETS buckets
+    public Map<String, Object> getRevenueSeries(LocalDate from, LocalDate to, String granularity) {
+        checkBucketCount(from, to, granularity);
+        List<Map<String, Object>> buckets = new ArrayList<>();
+        LocalDate start = from;
+        while (!start.isAfter(to)) {
+            LocalDate end = bucketEnd(start, granularity);
+            if (end.isAfter(to)) {
+                end = to;
+            }
+            Map<String, Object> bucket = new HashMap<>();
+            bucket.put("start", start);
+            bucket.put("end", end);
+            bucket.put("total", getRevenue(start, end));
+            buckets.add(bucket);
+            start = end.plusDays(1);
+        }
+
+        Map<String, Object> result = new HashMap<>();
+        result.put("from", from);
+        result.put("to", to);
+        result.put("granularity", granularity);
+        result.put("total", getRevenue(from, to));
+        result.put("buckets", buckets);
+        return result;
+    }
+
+    // Stops counting at the limit, so an absurd range costs no more than an allowed one
+    public static void checkBucketCount(LocalDate from, LocalDate to, String granularity) {
+        int count = 0;
+        for (LocalDate start = from; !start.isAfter(to); start = bucketEnd(start, granularity).plusDays(1)) {
+            if (++count > AnalyticsService.MAX_BUCKETS) {
+                throw new IllegalArgumentException("More than " + AnalyticsService.MAX_BUCKETS
+                        + " buckets; use a coarser granularity");
+            }
+        }
+    }
+
+    // Last day of the calendar day/week/month/quarter/year containing start; weeks end on Sunday
+    static LocalDate bucketEnd(LocalDate start, String granularity) {
+        switch (granularity) {
+            case "day":
+                return start;
+            case "week":
+                return start.with(TemporalAdjusters.nextOrSame(DayOfWeek.SUNDAY));
+            case "month":
+                return start.with(TemporalAdjusters.lastDayOfMonth());
+            case "quarter":
+                return YearMonth.of(start.getYear(), (start.getMonthValue() - 1) / 3 * 3 + 3).atEndOfMonth();
+            case "year":
+                return start.with(TemporalAdjusters.lastDayOfYear());
+            default:
+                throw new IllegalArgumentException("Unsupported granularity: " + granularity);
+        }
+    }
+
+    // Caller holds the write lock
+    private void apply(PaymentFacts facts, int sign) {
+        if (facts == null || facts.amount() == null) {
+            return;
+        }
+        totalPaise += sign * toPaise(facts.amount());
+        if (facts.paymentDate() == null) {
+            return;
+        }
+        long day = facts.paymentDate().toLocalDate().toEpochDay();
+        if (day < 0) {
+            return;
+        }
+        if (day >= daily.length) {
+            daily = Arrays.copyOf(daily, capacityFor(day));
+            tree = buildTree(daily);
+        }
+        long delta = sign * toPaise(facts.amount());
+        daily[(int) day] += delta;
+        for (int i = (int) day + 1; i < tree.length; i += i & -i) {
+            tree[i] += delta;
+        }
+    }
+
+    // Sum of days 0..day inclusive; caller holds a lock
+    private long prefixSum(long day) {
+        if (day < 0) {
+            return 0;
+        }
+        long sum = 0;
+        for (int i = (int) Math.min(day + 1, tree.length - 1); i > 0; i -= i & -i) {
+            sum += tree[i];
+        }
+        return sum;
+    }
+
+    // O(n) Fenwick construction: push each node's partial sum to its parent
+    private static long[] buildTree(long[] values) {
+        long[] built = new long[values.length + 1];
+        for (int i = 1; i <= values.length; i++) {
+            built[i] += values[i - 1];
+            int parent = i + (i & -i);
+            if (parent <= values.length) {
+                built[parent] += built[i];
+            }
+        }
+        return built;
+    }
+
+    // Room for the given day plus roughly a year of headroom
+    private static int capacityFor(long day) {
+        return (int) day + 400;
+    }
+
+    private static long toPaise(double amount) {
+        return Math.round(amount * 100);
+    }
+}
@@ -0,0 +1,380 @@
+package com.example.studentmanagement.service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.studentmanagement.model.Student;
+import com.example.studentmanagement.repository.DocumentBlobRepository;
+import com.example.studentmanagement.service.DashboardAggregateStore.StudentFacts;
+import com.example.studentmanagement.service.DataChangedEvent.DataSet;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.introspect.BeanPropertyDefinition;
+
+/**
+ * Bulk student import from CSV (header row of Student property names) or
+ * JSON lines. Rows are parsed one at a time and written in chunks with a
+ * single JDBC batch insert per chunk, so neither the file nor the result set
+ * is ever held in memory. A chunk the database rejects is retried row by row
+ * to pin the error on the offending rows.
+ */
+@Service
+public class StudentImportService {
+
+    public static final int DEFAULT_CHUNK_SIZE = 500;
+    public static final int MAX_CHUNK_SIZE = 5000;
+    private static final int MAX_REPORTED_ERRORS = 1000;
+
+    private static final String INSERT_SQL = "INSERT INTO students (name, father_name, mother_name, dob, email, "
+            + "phone_number, address, courses, course_duration, total_course_fee, paid_amount, remaining_amount, "
+            + "admission_date, tenth_class_document, enquiry_id) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private DashboardAggregateStore aggregateStore;
+
+    @Autowired
+    private StudentSearchIndex searchIndex;
+
+    @Autowired
+    private DocumentStorageService documentStorageService;
+
+    @Autowired
+    private DocumentPreviewService documentPreviewService;
+
+    @Autowired
+    private DocumentBlobRepository blobRepository;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    private record Row(int number, Student student) {
+    }
+
+    // Counters and the first MAX_REPORTED_ERRORS row errors of one import
+    private static class Progress {
+        long imported;
+        long failed;
+        final List<Map<String, Object>> errors = new ArrayList<>();
+
+        void fail(int row, String message) {
+            failed++;
+            if (errors.size() < MAX_REPORTED_ERRORS) {
+                Map<String, Object> error = new HashMap<>();
+                error.put("row", row);
+                error.put("error", message);
+                errors.add(error);
+            }
+        }
+    }
+
+    // Throws IllegalArgumentException for a CSV header that is unreadable or names an unknown column
+    public Map<String, Object> importStudents(InputStream body, String format, int chunkSize) throws IOException {
+        Progress progress = new Progress();
+        List<Row> chunk = new ArrayList<>(chunkSize);
+        long started = System.currentTimeMillis();
+
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8))) {
+            skipByteOrderMark(reader);
+            List<String> header = format.equals("csv") ? readCsvRecord(reader) : null;
+            if (header != null) {
+                checkHeader(header);
+            }
+            int rowNumber = 0;
+            while (true) {
+                Student student;
+                try {
+                    if (format.equals("csv")) {
+                        if (header == null) {
+                            break;
+                        }
+                        List<String> record = readCsvRecord(reader);
+                        if (record == null) {
+                            break;
+                        }
+                        rowNumber++;
+                        if (record.stream().allMatch(String::isBlank)) {
+                            continue;
+                        }
+                        student = fromCsv(header, record);
+                    } else {
+                        String line = reader.readLine();
+                        if (line == null) {
+                            break;
+                        }
+                        rowNumber++;
+                        if (line.isBlank()) {
+                            continue;
+                        }
+                        student = objectMapper.readValue(line, Student.class);
+                    }
+                } catch (JsonProcessingException | IllegalArgumentException e) {
+                    progress.fail(rowNumber, firstLine(e.getMessage()));
+                    continue;
+                }
+
+                String problem = validate(student);
+                if (problem == null) {
+                    problem = checkDocument(student.getTenthClassDocument());
+                }
+                if (problem != null) {
+                    progress.fail(rowNumber, problem);
+                    continue;
+                }
+                chunk.add(new Row(rowNumber, student));
+                if (chunk.size() == chunkSize) {
+                    write(chunk, progress);
+                    chunk.clear();
+                }
+            }
+        }
+        write(chunk, progress);
+
+        Map<String, Object> result = new HashMap<>();
+        result.put("imported", progress.imported);
+        result.put("failed", progress.failed);
+        result.put("errors", progress.errors);
+        result.put("errorsTruncated", progress.failed > progress.errors.size());
+        result.put("millis", System.currentTimeMillis() - started);
+        return result;
+    }
+
+    private void write(List<Row> chunk, Progress progress) {
+        if (chunk.isEmpty()) {
+            return;
+        }
+        try {
+            insert(chunk);
+            progress.imported += chunk.size();
+        } catch (RuntimeException e) {
+            if (chunk.size() == 1) {
+                progress.fail(chunk.get(0).number(), firstLine(NestedExceptionUtils.getMostSpecificCause(e).getMessage()));
+                return;
+            }
+            for (Row row : chunk) {
+                write(List.of(row), progress);
+            }
+        }
+    }
+
+    // One transaction, one batched INSERT; the aggregates and search index follow on commit
+    private void insert(List<Row> rows) {
+        transactionTemplate.executeWithoutResult(status -> {
+            KeyHolder keys = new GeneratedKeyHolder();
+            jdbcTemplate.batchUpdate(connection -> connection.prepareStatement(INSERT_SQL, new String[] { "id" }),
+                    new BatchPreparedStatementSetter() {
+                        @Override
+                        public void setValues(PreparedStatement ps, int i) throws SQLException {
+                            bind(ps, rows.get(i).student());
+                        }
+
+                        @Override
+                        public int getBatchSize() {
+                            return rows.size();
+                        }
+                    }, keys);
+
+            List<Map<String, Object>> keyList = keys.getKeyList();
+            List<String> documents = new ArrayList<>();
+            for (int i = 0; i < rows.size(); i++) {
+                Student student = rows.get(i).student();
+                student.setId(((Number) keyList.get(i).values().iterator().next()).longValue());
+                aggregateStore.studentChanged(null, StudentFacts.of(student));
+                searchIndex.studentSaved(student);
+                if (student.getTenthClassDocument() != null) {
+                    documents.add(student.getTenthClassDocument());
+                    documentPreviewService.requestDerivatives(student.getTenthClassDocument());
+                }
+            }
+            documentStorageService.retainAll(documents);
+            eventPublisher.publishEvent(new DataChangedEvent(DataSet.STUDENTS));
+        });
+    }
+
+    private static void bind(PreparedStatement ps, Student student) throws SQLException {
+        ps.setString(1, student.getName());
+        ps.setString(2, student.getFatherName());
+        ps.setString(3, student.getMotherName());
+        ps.setString(4, student.getDob());
+        ps.setString(5, student.getEmail());
+        ps.setString(6, student.getPhoneNumber());
+        ps.setString(7, student.getAddress());
+        ps.setString(8, student.getCourses());
+        ps.setString(9, student.getCourseDuration());
+        ps.setBigDecimal(10, student.getTotalCourseFee());
+        ps.setBigDecimal(11, student.getPaidAmount());
+        ps.setBigDecimal(12, student.getRemainingAmount());
+        ps.setDate(13, Date.valueOf(student.getAdmissionDate()));
+        ps.setString(14, student.getTenthClassDocument());
+        if (student.getEnquiryId() != null) {
+            ps.setLong(15, student.getEnquiryId());
+        } else {
+            ps.setNull(15, Types.BIGINT);
+        }
+    }
+
+    // Same defaults StudentService.saveStudent applies; null when the row is acceptable
+    private static String validate(Student student) {
+        student.setId(null);
+        if (student.getName() == null || student.getName().isBlank()) {
+            return "name is required";
+        }
+        if (student.getPhoneNumber() == null || student.getPhoneNumber().isBlank()) {
+            return "phoneNumber is required";
+        }
+        if (student.getTotalCourseFee() != null && student.getTotalCourseFee().signum() < 0) {
+            return "totalCourseFee must not be negative";
+        }
+        if (student.getPaidAmount() != null && student.getPaidAmount().signum() < 0) {
+            return "paidAmount must not be negative";
+        }
+        if (student.getPaidAmount() == null) {
+            student.setPaidAmount(new BigDecimal("0.00"));
+        }
+        if (student.getAdmissionDate() == null) {
+            student.setAdmissionDate(LocalDate.now());
+        }
+        if (student.getTotalCourseFee() != null) {
+            student.setRemainingAmount(student.getTotalCourseFee().subtract(student.getPaidAmount()));
+        }
+        return null;
+    }
+
+    // Only documents already in the store may be referenced; anything else would be served as a link
+    private String checkDocument(String filename) {
+        if (filename == null) {
+            return null;
+        }
+        String sha256 = DocumentStorageService.contentHashOf(filename);
+        if (sha256 == null || !blobRepository.existsById(sha256)) {
+            return "tenthClassDocument is not a stored document: " + filename;
+        }
+        return null;
+    }
+
+    // Excel's "CSV UTF-8" starts the file with one
+    static void skipByteOrderMark(BufferedReader reader) throws IOException {
+        reader.mark(1);
+        if (reader.read() != '\uFEFF') {
+            reader.reset();
+        }
+    }
+
+    // Every column must be a Student property; convertValue would otherwise drop it from every row
+    private void checkHeader(List<String> header) {
+        Set<String> properties = objectMapper.getDeserializationConfig()
+                .introspect(objectMapper.constructType(Student.class))
+                .findProperties().stream()
+                .filter(BeanPropertyDefinition::couldDeserialize)
+                .map(BeanPropertyDefinition::getName)
+                .collect(Collectors.toSet());
+        Set<String> seen = new HashSet<>();
+        for (String column : header) {
+            String name = column.trim();
+            if (!properties.contains(name)) {
+                throw new IllegalArgumentException("Unknown column \"" + name + "\"");
+            }
+            if (!seen.add(name)) {
+                throw new IllegalArgumentException("Duplicate column \"" + name + "\"");
+            }
+        }
+    }
+
+    private Student fromCsv(List<String> header, List<String> record) {
+        if (record.size() > header.size()) {
+            throw new IllegalArgumentException("Row has " + record.size() + " fields, header has " + header.size());
+        }
+        Map<String, String> fields = new HashMap<>();
+        for (int i = 0; i < record.size(); i++) {
+            String value = record.get(i).trim();
+            fields.put(header.get(i).trim(), value.isEmpty() ? null : value);
+        }
+        return objectMapper.convertValue(fields, Student.class);
+    }
+
+    // Next RFC 4180 record (quoted fields may contain commas, quotes and newlines); null at end of input
+    static List<String> readCsvRecord(BufferedReader reader) throws IOException {
+        int c = reader.read();
+        if (c == -1) {
+            return null;
+        }
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        while (c != -1) {
+            if (quoted) {
+                if (c == '"') {
+                    reader.mark(1);
+                    int next = reader.read();
+                    if (next == '"') {
+                        field.append('"');
+                    } else {
+                        quoted = false;
+                        if (next != -1) {
+                            reader.reset();
+                        }
+                    }
+                } else {
+                    field.append((char) c);
+                }
+            } else if (c == '"' && field.length() == 0) {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else if (c == '\n') {
+                break;
+            } else if (c != '\r') {
+                field.append((char) c);
+            }
+            c = reader.read();
+        }
+        if (quoted) {
+            throw new IllegalArgumentException("Unterminated quoted field");
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+
+    private static String firstLine(String message) {
+        if (message == null) {
+            return "Invalid row";
+        }
+        int newline = message.indexOf('\n');
+        return newline < 0 ? message : message.substring(0, newline);
+    }
+}
@@ -0,0 +1,400 @@
+package com.example.studentmanagement.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.example.studentmanagement.model.Student;
+import com.example.studentmanagement.repository.StudentRepository;
+
+/**
+ * Trigram index over student name, email and phone number. A substring query
+ * of three or more characters is answered by intersecting the posting lists
+ * of its trigrams and checking the few survivors. One- and two-character
+ * queries, the first keystrokes of a search box, match the start of a word
+ * and are answered from posting lists of word prefixes. Either way the
+ * database is not involved until the matching ids are loaded.
+ */
+@Component
+public class StudentSearchIndex {
+
+    private static final char NAME = 'n';
+    private static final char EMAIL = 'e';
+    private static final char PHONE = 'p';
+
+    @Autowired
+    private StudentRepository studentRepository;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // Lower-cased searchable fields per student id, and field-tagged trigram or word prefix -> sorted ids
+    private final Map<Integer, Doc> docs = new HashMap<>();
+    private final Map<String, IdList> postings = new HashMap<>();
+
+    private record Doc(String name, String email, String phone) {
+        static Doc of(String name, String email, String phone) {
+            return new Doc(lower(name), lower(email), lower(phone));
+        }
+
+        String field(char field) {
+            return field == NAME ? name : field == EMAIL ? email : phone;
+        }
+    }
+
+    private record Match(int id, int score, String name) {
+    }
+
+    // Best first: lower score, then name, then id
+    private static final Comparator<Match> RANKING = Comparator.comparingInt(Match::score)
+            .thenComparing(Match::name, Comparator.nullsLast(Comparator.naturalOrder()))
+            .thenComparingInt(Match::id);
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void rebuild() {
+        lock.writeLock().lock();
+        try {
+            docs.clear();
+            postings.clear();
+            try (Stream<Object[]> rows = studentRepository.streamSearchRows()) {
+                for (Object[] row : (Iterable<Object[]>) rows::iterator) {
+                    add(Math.toIntExact((Long) row[0]), Doc.of((String) row[1], (String) row[2], (String) row[3]));
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+        System.out.println("Student search index loaded: " + docs.size() + " students, "
+                + postings.size() + " keys");
+    }
+
+    public void studentSaved(Student student) {
+        int id = Math.toIntExact(student.getId());
+        Doc doc = Doc.of(student.getName(), student.getEmail(), student.getPhoneNumber());
+        TransactionHooks.afterCommit(() -> {
+            lock.writeLock().lock();
+            try {
+                remove(id);
+                add(id, doc);
+            } finally {
+                lock.writeLock().unlock();
+            }
+        });
+    }
+
+    public void studentDeleted(Long studentId) {
+        int id = Math.toIntExact(studentId);
+        TransactionHooks.afterCommit(() -> {
+            lock.writeLock().lock();
+            try {
+                remove(id);
+            } finally {
+                lock.writeLock().unlock();
+            }
+        });
+    }
+
+    /**
+     * Ids of the best matches, best first. {@code any} matches name, email or
+     * phone; the other terms must each match their own field. Null terms are
+     * ignored; a student with a null field never matches a term on that field.
+     */
+    public List<Long> search(String any, String name, String email, String phone, int limit) {
+        String anyTerm = lower(any);
+        String nameTerm = lower(name);
+        String emailTerm = lower(email);
+        String phoneTerm = lower(phone);
+
+        lock.readLock().lock();
+        try {
+            // null means "every student"
+            int[] candidates = null;
+            if (nameTerm != null) {
+                candidates = intersect(candidates, lookup(NAME, nameTerm));
+            }
+            if (emailTerm != null) {
+                candidates = intersect(candidates, lookup(EMAIL, emailTerm));
+            }
+            if (phoneTerm != null) {
+                candidates = intersect(candidates, lookup(PHONE, phoneTerm));
+            }
+            if (anyTerm != null) {
+                candidates = intersect(candidates,
+                        union(lookup(NAME, anyTerm), lookup(EMAIL, anyTerm), lookup(PHONE, anyTerm)));
+            }
+
+            // Keep the best "limit" matches; the head is the worst of them
+            PriorityQueue<Match> best = new PriorityQueue<>(RANKING.reversed());
+            if (candidates != null) {
+                for (int id : candidates) {
+                    consider(best, limit, id, docs.get(id), anyTerm, nameTerm, emailTerm, phoneTerm);
+                }
+            } else {
+                for (Map.Entry<Integer, Doc> entry : docs.entrySet()) {
+                    consider(best, limit, entry.getKey(), entry.getValue(), anyTerm, nameTerm, emailTerm, phoneTerm);
+                }
+            }
+
+            List<Match> ranked = new ArrayList<>(best);
+            ranked.sort(RANKING);
+            List<Long> result = new ArrayList<>(ranked.size());
+            ranked.forEach(match -> result.add((long) match.id()));
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private static void consider(PriorityQueue<Match> best, int limit, int id, Doc doc,
+            String any, String name, String email, String phone) {
+        int score = score(doc, any, name, email, phone);
+        if (score < 0) {
+            return;
+        }
+        best.offer(new Match(id, score, doc.name()));
+        if (best.size() > limit) {
+            best.poll();
+        }
+    }
+
+    // Sum of the per-term scores, or -1 if some term doesn't match
+    private static int score(Doc doc, String any, String name, String email, String phone) {
+        int total = 0;
+        for (char field : new char[] { NAME, EMAIL, PHONE }) {
+            String term = field == NAME ? name : field == EMAIL ? email : phone;
+            if (term != null) {
+                int score = score(doc.field(field), term);
+                if (score < 0) {
+                    return -1;
+                }
+                total += score;
+            }
+        }
+        if (any != null) {
+            int bestAny = -1;
+            for (char field : new char[] { NAME, EMAIL, PHONE }) {
+                int score = score(doc.field(field), any);
+                if (score >= 0 && (bestAny < 0 || score < bestAny)) {
+                    bestAny = score;
+                }
+            }
+            if (bestAny < 0) {
+                return -1;
+            }
+            total += bestAny;
+        }
+        return total;
+    }
+
+    // 0 exact, 1 prefix, 2 start of a later word, 3 anywhere else, -1 no match
+    private static int score(String value, String term) {
+        if (value == null) {
+            return -1;
+        }
+        int index = value.indexOf(term);
+        if (index < 0) {
+            return -1;
+        }
+        if (index == 0) {
+            return value.length() == term.length() ? 0 : 1;
+        }
+        for (int i = index; i >= 0; i = value.indexOf(term, i + 1)) {
+            if (!Character.isLetterOrDigit(value.charAt(i - 1))) {
+                return 2;
+            }
+        }
+        return 3;
+    }
+
+    // Sorted ids whose field contains every trigram of the term, or for a term shorter than a
+    // trigram, a word starting with it; null for an empty term
+    private int[] lookup(char field, String term) {
+        if (term.isEmpty()) {
+            return null;
+        }
+        if (term.length() < 3) {
+            IdList list = postings.get(field + term);
+            return list == null ? new int[0] : list.toArray();
+        }
+        List<IdList> lists = new ArrayList<>();
+        for (String trigram : trigrams(field, term)) {
+            IdList list = postings.get(trigram);
+            if (list == null) {
+                return new int[0];
+            }
+            lists.add(list);
+        }
+        lists.sort(Comparator.comparingInt(list -> list.size));
+        IdList smallest = lists.get(0);
+        int[] result = new int[smallest.size];
+        int count = 0;
+        for (int i = 0; i < smallest.size; i++) {
+            int id = smallest.ids[i];
+            boolean inAll = true;
+            for (int j = 1; j < lists.size() && inAll; j++) {
+                inAll = lists.get(j).contains(id);
+            }
+            if (inAll) {
+                result[count++] = id;
+            }
+        }
+        return Arrays.copyOf(result, count);
+    }
+
+    // Merge of sorted arrays; null (everything) wins
+    private static int[] union(int[]... arrays) {
+        int total = 0;
+        for (int[] array : arrays) {
+            if (array == null) {
+                return null;
+            }
+            total += array.length;
+        }
+        int[] merged = new int[total];
+        int count = 0;
+        for (int[] array : arrays) {
+            System.arraycopy(array, 0, merged, count, array.length);
+            count += array.length;
+        }
+        return Arrays.stream(merged).sorted().distinct().toArray();
+    }
+
+    // Intersection of sorted arrays; null (everything) is the identity
+    private static int[] intersect(int[] a, int[] b) {
+        if (a == null) {
+            return b;
+        }
+        if (b == null) {
+            return a;
+        }
+        int[] result = new int[Math.min(a.length, b.length)];
+        int count = 0;
+        for (int i = 0, j = 0; i < a.length && j < b.length;) {
+            if (a[i] < b[j]) {
+                i++;
+            } else if (a[i] > b[j]) {
+                j++;
+            } else {
+                result[count++] = a[i];
+                i++;
+                j++;
+            }
+        }
+        return Arrays.copyOf(result, count);
+    }
+
+    // Caller holds the write lock
+    private void add(int id, Doc doc) {
+        docs.put(id, doc);
+        for (char field : new char[] { NAME, EMAIL, PHONE }) {
+            String value = doc.field(field);
+            if (value != null) {
+                for (String key : keys(field, value)) {
+                    postings.computeIfAbsent(key, k -> new IdList()).add(id);
+                }
+            }
+        }
+    }
+
+    // Caller holds the write lock
+    private void remove(int id) {
+        Doc doc = docs.remove(id);
+        if (doc == null) {
+            return;
+        }
+        for (char field : new char[] { NAME, EMAIL, PHONE }) {
+            String value = doc.field(field);
+            if (value != null) {
+                for (String key : keys(field, value)) {
+                    IdList list = postings.get(key);
+                    if (list != null && list.remove(id) && list.size == 0) {
+                        postings.remove(key);
+                    }
+                }
+            }
+        }
+    }
+
+    // Distinct trigrams of the value, each prefixed with the field tag
+    private static Set<String> trigrams(char field, String value) {
+        Set<String> trigrams = new HashSet<>();
+        for (int i = 0; i + 3 <= value.length(); i++) {
+            trigrams.add(field + value.substring(i, i + 3));
+        }
+        return trigrams;
+    }
+
+    // Trigrams plus the one- and two-character prefixes of each word; a word starts the value or
+    // follows a character that is not a letter or digit, as score() counts it. Being shorter, the
+    // prefix keys never collide with trigram keys.
+    static Set<String> keys(char field, String value) {
+        Set<String> keys = trigrams(field, value);
+        for (int i = 0; i < value.length(); i++) {
+            if (i == 0 || !Character.isLetterOrDigit(value.charAt(i - 1))) {
+                keys.add(field + value.substring(i, i + 1));
+                if (i + 2 <= value.length()) {
+                    keys.add(field + value.substring(i, i + 2));
+                }
+            }
+        }
+        return keys;
+    }
+
+    static String lower(String value) {
+        return value == null ? null : value.toLowerCase(Locale.ROOT);
+    }
+
+    // Sorted, growable list of ids; new students mostly append at the end
+    static final class IdList {
+        private int[] ids = new int[4];
+        private int size;
+
+        boolean contains(int id) {
+            return Arrays.binarySearch(ids, 0, size, id) >= 0;
+        }
+
+        void add(int id) {
+            int index = Arrays.binarySearch(ids, 0, size, id);
+            if (index >= 0) {
+                return;
+            }
+            index = -index - 1;
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+            }
+            System.arraycopy(ids, index, ids, index + 1, size - index);
+            ids[index] = id;
+            size++;
+        }
+
+        boolean remove(int id) {
+            int index = Arrays.binarySearch(ids, 0, size, id);
+            if (index < 0) {
+                return false;
+            }
+            System.arraycopy(ids, index + 1, ids, index, size - index - 1);
+            size--;
+            return true;
+        }
+
+        int[] toArray() {
+            return Arrays.copyOf(ids, size);
+        }
+    }
+}
@@ -1,18 +1,38 @@
 package com.example.studentmanagement.service;
 
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import com.example.studentmanagement.model.Student;
+import com.example.studentmanagement.repository.StudentListItem;
 import com.example.studentmanagement.repository.StudentRepository;
 import com.example.studentmanagement.repository.PaymentRepository;
 import com.example.studentmanagement.repository.CertificateRepository;
 import com.example.studentmanagement.repository.EnquiryRepository;
 import com.example.studentmanagement.model.Payment;
 import com.example.studentmanagement.repository.FeedbackRepository;
+import com.example.studentmanagement.service.DashboardAggregateStore.EnquiryFacts;
+import com.example.studentmanagement.service.DataChangedEvent.DataSet;
+import com.example.studentmanagement.service.RevenueIndex.PaymentFacts;
+import com.example.studentmanagement.service.DashboardAggregateStore.StudentFacts;
 
 @Service
 public class StudentService {
@@ -32,16 +52,121 @@ public class StudentService {
     @Autowired
     private FeedbackRepository feedbackRepository;
 
+    @Autowired
+    private DashboardAggregateStore aggregateStore;
+
+    @Autowired
+    private RevenueIndex revenueIndex;
+
+    @Autowired
+    private StudentSearchIndex searchIndex;
+
+    @Autowired
+    private DocumentStorageService documentStorageService;
+
+    @Autowired
+    private DocumentPreviewService documentPreviewService;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
     public List<Student> getAllStudents() {
         return studentRepository.findAll();
     }
 
+    public List<StudentListItem> getStudentListItems() {
+        return studentRepository.findListItems();
+    }
+
+    // Ids per IN list when deleting in bulk
+    private static final int DELETE_CHUNK_SIZE = 1000;
+
+    private static final Set<String> SORTABLE_FIELDS =
+            Set.of("id", "name", "admissionDate", "courses", "totalCourseFee", "paidAmount");
+
+    // One page by offset; id breaks ties so the order is stable across pages
+    public Map<String, Object> getStudentsPage(int page, int size, String sort, String direction) {
+        if (!SORTABLE_FIELDS.contains(sort)) {
+            throw new IllegalArgumentException("Cannot sort students by " + sort);
+        }
+        Sort.Direction dir = Sort.Direction.fromString(direction);
+        Sort order = sort.equals("id") ? Sort.by(dir, "id") : Sort.by(dir, sort).and(Sort.by(dir, "id"));
+        Page<StudentListItem> students = studentRepository.findListItems(PageRequest.of(page, size, order));
+
+        Map<String, Object> result = new HashMap<>();
+        result.put("content", students.getContent());
+        result.put("page", students.getNumber());
+        result.put("size", students.getSize());
+        result.put("totalElements", students.getTotalElements());
+        result.put("totalPages", students.getTotalPages());
+        result.put("hasNext", students.hasNext());
+        result.put("sort", sort);
+        result.put("direction", dir.name().toLowerCase());
+        return result;
+    }
+
+    // One page after the cursor (empty for the first page), so cost doesn't grow with depth.
+    // Cursors are "id" when seeking by id and "admissionDate~id" when seeking by admission
+    // date; students without an admission date are not part of the date order.
+    public Map<String, Object> getStudentsAfter(int size, String sort, String direction, String after) {
+        boolean ascending = Sort.Direction.fromString(direction).isAscending();
+        // One extra row tells us whether there is a next page
+        Pageable limit = PageRequest.of(0, size + 1);
+        List<StudentListItem> students;
+        if (sort.equals("id")) {
+            long id = after.isEmpty() ? (ascending ? 0 : Long.MAX_VALUE) : Long.parseLong(after);
+            students = ascending
+                    ? studentRepository.findListItemsAfterId(id, limit)
+                    : studentRepository.findListItemsBeforeId(id, limit);
+        } else if (sort.equals("admissionDate")) {
+            if (after.isEmpty()) {
+                students = ascending
+                        ? studentRepository.findListItemsByAdmissionAsc(limit)
+                        : studentRepository.findListItemsByAdmissionDesc(limit);
+            } else {
+                String[] parts = after.split("~");
+                if (parts.length != 2) {
+                    throw new IllegalArgumentException("Malformed cursor: " + after);
+                }
+                LocalDate date = LocalDate.parse(parts[0]);
+                long id = Long.parseLong(parts[1]);
+                students = ascending
+                        ? studentRepository.findListItemsAdmittedAfter(date, id, limit)
+                        : studentRepository.findListItemsAdmittedBefore(date, id, limit);
+            }
+        } else {
+            throw new IllegalArgumentException("Keyset paging is by id or admissionDate, not " + sort);
+        }
+
+        boolean hasNext = students.size() > size;
+        List<StudentListItem> content = hasNext ? students.subList(0, size) : students;
+        String nextCursor = null;
+        if (hasNext) {
+            StudentListItem last = content.get(content.size() - 1);
+            nextCursor = sort.equals("id") ? String.valueOf(last.id()) : last.admissionDate() + "~" + last.id();
+        }
+
+        Map<String, Object> result = new HashMap<>();
+        result.put("content", content);
+        result.put("size", size);
+        result.put("hasNext", hasNext);
+        result.put("nextCursor", nextCursor);
+        result.put("sort", sort);
+        result.put("direction", ascending ? "asc" : "desc");
+        return result;
+    }
+
     public Student getStudentById(Long id) {
         return studentRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Student not found with id: " + id));
     }
 
     public Student saveStudent(Student student) {
+        return saveStudent(student, null);
+    }
+
+    // before: the student's state prior to this save, null for a new student
+    private Student saveStudent(Student student, StudentFacts before) {
         // Ensure payment fields are properly initialized
         if (student.getPaidAmount() == null) {
             student.setPaidAmount(new java.math.BigDecimal("0.00"));
@@ -56,71 +181,137 @@ public class StudentService {
                 student.getTotalCourseFee().subtract(student.getPaidAmount())
             );
         }
-        return studentRepository.save(student);
+        Student saved = studentRepository.save(student);
+        // An update never changes the document, so only a new student adds a reference
+        if (before == null && saved.getTenthClassDocument() != null) {
+            documentStorageService.retain(saved.getTenthClassDocument());
+            documentPreviewService.requestDerivatives(saved.getTenthClassDocument());
+        }
+        aggregateStore.studentChanged(before, StudentFacts.of(saved));
+        searchIndex.studentSaved(saved);
+        eventPublisher.publishEvent(new DataChangedEvent(DataSet.STUDENTS));
+        return saved;
     }
 
     @Transactional
     public void deleteStudent(Long id) {
-        try {
-            // First get the student to ensure it exists
-            Student student = getStudentById(id);
-            
-            // Delete all related payments and receipts
-            List<Payment> payments = paymentRepository.findByStudentId(id);
-            for (Payment payment : payments) {
-                paymentRepository.deleteById(payment.getId());
+        // Ensure it exists, so a bad id is still reported
+        getStudentById(id);
+        deleteStudents(List.of(id));
+    }
+
+    /**
+     * Deletes the students together with their payments, certificates, batch
+     * memberships, and the enquiries (and their feedback) made from their phone
+     * numbers. A fixed number of set-based statements per chunk of ids; nothing
+     * is loaded as an entity. Returns the number of students deleted.
+     */
+    @Transactional
+    public int deleteStudents(Collection<Long> ids) {
+        return deleteStudents(ids, true);
+    }
+
+    // Without the enquiries when a conversion is reversed; the enquiry it came from stays
+    @Transactional
+    public int deleteStudents(Collection<Long> ids, boolean withEnquiries) {
+        int deleted = 0;
+        List<Long> distinctIds = ids.stream().filter(Objects::nonNull).distinct().toList();
+        for (int from = 0; from < distinctIds.size(); from += DELETE_CHUNK_SIZE) {
+            List<Long> chunk = distinctIds.subList(from, Math.min(from + DELETE_CHUNK_SIZE, distinctIds.size()));
+            deleted += deleteChunk(chunk, withEnquiries);
+        }
+        if (deleted > 0) {
+            eventPublisher.publishEvent(new DataChangedEvent(DataSet.PAYMENTS));
+            eventPublisher.publishEvent(new DataChangedEvent(DataSet.CERTIFICATES));
+            eventPublisher.publishEvent(new DataChangedEvent(DataSet.ENQUIRIES));
+            eventPublisher.publishEvent(new DataChangedEvent(DataSet.STUDENTS));
+        }
+        return deleted;
+    }
+
+    private int deleteChunk(List<Long> ids, boolean withEnquiries) {
+        // Capture what the in-memory aggregates need before the rows are gone
+        List<Object[]> students = studentRepository.findDeletionRows(ids);
+        if (students.isEmpty()) {
+            return 0;
+        }
+        List<Long> foundIds = new ArrayList<>();
+        Set<String> phoneNumbers = new HashSet<>();
+        for (Object[] row : students) {
+            foundIds.add((Long) row[0]);
+            if (withEnquiries && row[4] != null) {
+                phoneNumbers.add((String) row[4]);
             }
-            
-            // Delete all related certificates
-            certificateRepository.findByStudent(student).forEach(certificate -> {
-                certificateRepository.deleteById(certificate.getId());
-            });
-            
-            // Delete related enquiries and their feedback
-            enquiryRepository.findAll().stream()
-                .filter(enquiry -> student.getPhoneNumber().equals(enquiry.getPhoneNumber()))
-                .forEach(enquiry -> {
-                    // Delete feedback entries for this enquiry
-                    feedbackRepository.findByEnquiryIdOrderByCreatedAtDesc(enquiry.getId())
-                        .forEach(feedback -> feedbackRepository.deleteById(feedback.getId()));
-                    // Delete the enquiry itself
-                    enquiryRepository.deleteById(enquiry.getId());
-                });
-            
-            // Finally delete the student
-            studentRepository.deleteById(id);
-        } catch (Exception e) {
-            e.printStackTrace(); // Add this for debugging
-            throw new RuntimeException("Error deleting student and related records: " + e.getMessage());
         }
+        List<Object[]> payments = paymentRepository.findAggregateRowsByStudentIds(foundIds);
+        List<LocalDate> enquiryDates = phoneNumbers.isEmpty() ? List.of()
+                : enquiryRepository.findEnquiryDatesByPhoneNumbers(phoneNumbers);
+
+        paymentRepository.deleteByStudentIds(foundIds);
+        certificateRepository.deleteByStudentIds(foundIds);
+        if (!phoneNumbers.isEmpty()) {
+            feedbackRepository.deleteByEnquiryPhoneNumbers(phoneNumbers);
+            enquiryRepository.deleteByPhoneNumbers(phoneNumbers);
+        }
+        studentRepository.deleteBatchLinks(foundIds);
+        int deleted = studentRepository.deleteByIds(foundIds);
+
+        for (Object[] row : payments) {
+            revenueIndex.paymentChanged(new PaymentFacts((LocalDateTime) row[0], (Double) row[1]), null);
+        }
+        for (LocalDate date : enquiryDates) {
+            aggregateStore.enquiryChanged(new EnquiryFacts(date), null);
+        }
+        List<String> documents = new ArrayList<>();
+        for (Object[] row : students) {
+            aggregateStore.studentChanged(StudentFacts.of((LocalDate) row[1], (BigDecimal) row[2],
+                    (BigDecimal) row[3], (BigDecimal) row[5]), null);
+            searchIndex.studentDeleted((Long) row[0]);
+            if (row[6] != null) {
+                documents.add((String) row[6]);
+            }
+        }
+        documentStorageService.releaseAll(documents);
+        return deleted;
     }
 
-    // Method to update payment information
-    public Student updatePayment(Long studentId, java.math.BigDecimal newPayment) {
-        return studentRepository.findById(studentId)
-            .map(student -> {
-                java.math.BigDecimal currentPaid = student.getPaidAmount() != null ? 
-                    student.getPaidAmount() : new java.math.BigDecimal("0.00");
-                
-                student.setPaidAmount(currentPaid.add(newPayment));
-                
-                if (student.getTotalCourseFee() != null) {
-                    student.setRemainingAmount(
-                        student.getTotalCourseFee().subtract(student.getPaidAmount())
-                    );
-                }
-                
-                return studentRepository.save(student);
-            })
-            .orElseThrow(() -> new RuntimeException("Student not found with id: " + studentId));
+    /**
+     * Adds delta (negative to refund) to the student's paid amount with a single
+     * UPDATE, so concurrent payments for the same student serialize on the row
+     * lock instead of overwriting each other.
+     */
+    @Transactional
+    public void addToPaidAmount(Long studentId, BigDecimal delta) {
+        if (delta.signum() == 0) {
+            return;
+        }
+        if (studentRepository.addToPaidAmount(studentId, delta) == 0) {
+            throw new RuntimeException("Student not found with id: " + studentId);
+        }
+        // Still holding the row lock, so this is exactly the state our update produced
+        Object[] row = studentRepository.findBalanceRow(studentId).get(0);
+        LocalDate admissionDate = (LocalDate) row[0];
+        BigDecimal totalCourseFee = (BigDecimal) row[1];
+        BigDecimal paidAmount = (BigDecimal) row[2];
+        BigDecimal remainingAmount = (BigDecimal) row[3];
+        // The update only moves remainingAmount when there is a course fee to measure it against
+        BigDecimal remainingBefore = totalCourseFee == null ? remainingAmount : remainingAmount.add(delta);
+        aggregateStore.studentChanged(
+                StudentFacts.of(admissionDate, totalCourseFee, paidAmount.subtract(delta), remainingBefore),
+                StudentFacts.of(admissionDate, totalCourseFee, paidAmount, remainingAmount));
+        eventPublisher.publishEvent(new DataChangedEvent(DataSet.STUDENTS));
     }
 
     public Student createStudent(Student student) {
         return saveStudent(student);
     }
 
+    // Locks the row: remainingAmount is recomputed from paidAmount, which a payment may be changing
+    @Transactional
     public Student updateStudent(Long id, Student studentDetails) {
-        Student student = getStudentById(id);
+        Student student = studentRepository.findForUpdate(id)
+                .orElseThrow(() -> new RuntimeException("Student not found with id: " + id));
+        StudentFacts before = StudentFacts.of(student);
         student.setName(studentDetails.getName());
         student.setFatherName(studentDetails.getFatherName());
         student.setMotherName(studentDetails.getMotherName());
@@ -131,17 +322,16 @@ public class StudentService {
         student.setCourses(studentDetails.getCourses());
         student.setCourseDuration(studentDetails.getCourseDuration());
         student.setTotalCourseFee(studentDetails.getTotalCourseFee());
-        student.setPaidAmount(studentDetails.getPaidAmount());
-        student.setRemainingAmount(studentDetails.getRemainingAmount());
+        // paidAmount is maintained by the payments; remainingAmount is recomputed on save
         student.setAdmissionDate(studentDetails.getAdmissionDate());
-        return saveStudent(student);
+        return saveStudent(student, before);
     }
 
-    public List<Student> searchStudents(String name, String email, String phone) {
-        return studentRepository.findAll().stream()
-                .filter(s -> (name == null || s.getName().toLowerCase().contains(name.toLowerCase()))
-                        && (email == null || s.getEmail().toLowerCase().contains(email.toLowerCase()))
-                        && (phone == null || s.getPhoneNumber().contains(phone)))
-                .toList();
+    // Matching is done by the in-memory index; only the top "limit" students are loaded
+    public List<Student> searchStudents(String query, String name, String email, String phone, int limit) {
+        List<Long> ids = searchIndex.search(query, name, email, phone, limit);
+        Map<Long, Student> byId = new HashMap<>();
+        studentRepository.findAllById(ids).forEach(student -> byId.put(student.getId(), student));
+        return ids.stream().map(byId::get).filter(Objects::nonNull).toList();
     }
 } 
\ No newline at end of file
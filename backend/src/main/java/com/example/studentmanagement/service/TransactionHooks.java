@@ -0,0 +1,33 @@
+package com.example.studentmanagement.service;
+
+import org.springframework.core.Ordered;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+// Helpers for in-memory state that must only change once a write is durable
+final class TransactionHooks {
+
+    private TransactionHooks() {
+    }
+
+    // Run after the current transaction commits; outside a transaction run immediately.
+    // Ahead of the @TransactionalEventListener callbacks, so the in-memory state is current
+    // before ResponseCache and DataVersions let clients see the new version.
+    static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public int getOrder() {
+                    return Ordered.HIGHEST_PRECEDENCE;
+                }
+
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package com.example.studentmanagement.service;
+
+import com.example.studentmanagement.model.Payment;
+import com.example.studentmanagement.model.Student;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+// A request made the moment the new version is visible must already see the committed write
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:dataversions;DB_CLOSE_DELAY=-1",
+        "spring.datasource.driverClassName=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.show-sql=false",
+        "logging.level.org.hibernate.SQL=INFO",
+        "logging.level.org.hibernate.type.descriptor.sql.BasicBinder=INFO",
+        "logging.level.org.springframework.web=INFO"
+})
+@AutoConfigureMockMvc
+class DataVersionsTest {
+
+    // Runs straight after DataVersions has bumped the version
+    @TestConfiguration
+    static class Probe {
+        volatile Runnable action;
+
+        @TransactionalEventListener(fallbackExecution = true)
+        @Order(2)
+        public void onDataChanged(DataChangedEvent event) {
+            Runnable current = action;
+            if (current != null && event.dataSet() == DataChangedEvent.DataSet.PAYMENTS) {
+                action = null;
+                current.run();
+            }
+        }
+    }
+
+    @Autowired
+    private Probe probe;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private StudentService studentService;
+
+    @Autowired
+    private PaymentService paymentService;
+
+    @Test
+    void firstRequestWithNewETagSeesTheNewTotal() throws Exception {
+        Student student = new Student();
+        student.setName("Asha Verma");
+        student.setTotalCourseFee(new BigDecimal("5000"));
+        student = studentService.createStudent(student);
+
+        MvcResult before = mockMvc.perform(get("/api/reports/total-revenue")).andReturn();
+        String totalBefore = before.getResponse().getContentAsString();
+
+        MvcResult[] during = new MvcResult[1];
+        probe.action = () -> {
+            try {
+                during[0] = mockMvc.perform(get("/api/reports/total-revenue")).andReturn();
+            } catch (Exception e) {
+                throw new RuntimeException(e);
+            }
+        };
+        Payment payment = new Payment();
+        payment.setStudent(student);
+        payment.setAmount(1250.0);
+        paymentService.createPayment(payment);
+
+        assertNotNull(during[0]);
+        assertNotEquals(before.getResponse().getHeader(HttpHeaders.ETAG),
+                during[0].getResponse().getHeader(HttpHeaders.ETAG));
+        assertNotEquals(totalBefore, during[0].getResponse().getContentAsString());
+
+        MvcResult after = mockMvc.perform(get("/api/reports/total-revenue")).andReturn();
+        assertEquals(after.getResponse().getHeader(HttpHeaders.ETAG),
+                during[0].getResponse().getHeader(HttpHeaders.ETAG));
+        assertEquals(after.getResponse().getContentAsString(), during[0].getResponse().getContentAsString());
+    }
+}
@@ -0,0 +1,57 @@
+package com.example.studentmanagement.service;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class DocumentSenderTest {
+
+    @Test
+    void closedRange() {
+        assertArrayEquals(new long[] {0, 99}, DocumentSender.parseRange("bytes=0-99", 1000));
+        assertArrayEquals(new long[] {500, 500}, DocumentSender.parseRange("bytes=500-500", 1000));
+    }
+
+    @Test
+    void endPastLengthIsClamped() {
+        assertArrayEquals(new long[] {900, 999}, DocumentSender.parseRange("bytes=900-5000", 1000));
+    }
+
+    @Test
+    void openEndedRange() {
+        assertArrayEquals(new long[] {100, 999}, DocumentSender.parseRange("bytes=100-", 1000));
+        assertArrayEquals(new long[] {999, 999}, DocumentSender.parseRange("bytes=999-", 1000));
+    }
+
+    @Test
+    void suffixRange() {
+        assertArrayEquals(new long[] {900, 999}, DocumentSender.parseRange("bytes=-100", 1000));
+        assertArrayEquals(new long[] {0, 999}, DocumentSender.parseRange("bytes=-5000", 1000));
+    }
+
+    @Test
+    void unsatisfiableRanges() {
+        assertArrayEquals(new long[0], DocumentSender.parseRange("bytes=1000-", 1000));
+        assertArrayEquals(new long[0], DocumentSender.parseRange("bytes=1000-2000", 1000));
+        assertArrayEquals(new long[0], DocumentSender.parseRange("bytes=-0", 1000));
+        assertArrayEquals(new long[0], DocumentSender.parseRange("bytes=-10", 0));
+        assertArrayEquals(new long[0], DocumentSender.parseRange("bytes=0-", 0));
+    }
+
+    @Test
+    void whitespaceAroundBoundsIsAllowed() {
+        assertArrayEquals(new long[] {10, 20}, DocumentSender.parseRange("bytes= 10 - 20 ", 1000));
+    }
+
+    @Test
+    void ignoredHeaders() {
+        assertNull(DocumentSender.parseRange("items=0-99", 1000));
+        assertNull(DocumentSender.parseRange("bytes=0-9,20-29", 1000));
+        assertNull(DocumentSender.parseRange("bytes=100", 1000));
+        assertNull(DocumentSender.parseRange("bytes=-", 1000));
+        assertNull(DocumentSender.parseRange("bytes=a-b", 1000));
+        assertNull(DocumentSender.parseRange("bytes=50-10", 1000));
+        assertNull(DocumentSender.parseRange("bytes=-5-10", 1000));
+    }
+}
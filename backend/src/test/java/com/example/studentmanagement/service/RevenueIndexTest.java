@@ -0,0 +1,114 @@
+package com.example.studentmanagement.service;
+
+import com.example.studentmanagement.service.RevenueIndex.PaymentFacts;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+// Outside a transaction paymentChanged applies immediately, so no repository is needed
+class RevenueIndexTest {
+
+    private static PaymentFacts paid(LocalDate date, double amount) {
+        return new PaymentFacts(date == null ? null : date.atTime(10, 30), amount);
+    }
+
+    @Test
+    void rangeSumsMatchDailyTotals() {
+        RevenueIndex index = new RevenueIndex();
+        LocalDate base = LocalDate.of(2024, 1, 1);
+        double[] expected = new double[400];
+        Random random = new Random(42);
+        for (int i = 0; i < 2000; i++) {
+            int day = random.nextInt(expected.length);
+            double amount = random.nextInt(100_000) / 100.0;
+            index.paymentChanged(null, paid(base.plusDays(day), amount));
+            expected[day] += amount;
+        }
+        for (int i = 0; i < 200; i++) {
+            int from = random.nextInt(expected.length);
+            int to = from + random.nextInt(expected.length - from);
+            double sum = 0;
+            for (int day = from; day <= to; day++) {
+                sum += expected[day];
+            }
+            assertEquals(sum, index.getRevenue(base.plusDays(from), base.plusDays(to)), 0.001);
+        }
+    }
+
+    @Test
+    void growingPastCapacityKeepsEarlierTotals() {
+        RevenueIndex index = new RevenueIndex();
+        LocalDate early = LocalDate.of(1990, 6, 15);
+        LocalDate late = LocalDate.of(2090, 6, 15);
+        index.paymentChanged(null, paid(early, 100));
+        index.paymentChanged(null, paid(late, 250));
+        index.paymentChanged(null, paid(early.plusDays(1), 50));
+
+        assertEquals(150, index.getRevenue(early, early.plusDays(1)), 0.001);
+        assertEquals(250, index.getRevenue(late, late), 0.001);
+        assertEquals(400, index.getRevenue(LocalDate.of(1970, 1, 1), late.plusYears(5)), 0.001);
+    }
+
+    @Test
+    void editsAndDeletesMoveTotals() {
+        RevenueIndex index = new RevenueIndex();
+        LocalDate march = LocalDate.of(2024, 3, 10);
+        LocalDate april = LocalDate.of(2024, 4, 10);
+        index.paymentChanged(null, paid(march, 1000));
+        index.paymentChanged(paid(march, 1000), paid(april, 1200));
+
+        assertEquals(0, index.getRevenue(march, march), 0.001);
+        assertEquals(1200, index.getRevenue(april, april), 0.001);
+        assertEquals(1200, index.getTotalRevenue(), 0.001);
+
+        index.paymentChanged(paid(april, 1200), null);
+        assertEquals(0, index.getRevenue(march, april), 0.001);
+        assertEquals(0, index.getTotalRevenue(), 0.001);
+    }
+
+    @Test
+    void undatedPaymentsOnlyCountInTotal() {
+        RevenueIndex index = new RevenueIndex();
+        index.paymentChanged(null, paid(null, 75.5));
+        index.paymentChanged(null, new PaymentFacts(null, null));
+
+        assertEquals(75.5, index.getTotalRevenue(), 0.001);
+        assertEquals(0, index.getRevenue(LocalDate.of(1970, 1, 1), LocalDate.of(2100, 1, 1)), 0.001);
+    }
+
+    @Test
+    void reversedAndEmptyRanges() {
+        RevenueIndex index = new RevenueIndex();
+        LocalDate day = LocalDate.of(2024, 5, 1);
+        index.paymentChanged(null, paid(day, 10));
+
+        assertEquals(0, index.getRevenue(day.plusDays(1), day), 0.001);
+        assertEquals(0, index.getRevenue(day.plusYears(300), day.plusYears(301)), 0.001);
+    }
+
+    @Test
+    void seriesBucketsCoverTheRange() {
+        RevenueIndex index = new RevenueIndex();
+        index.paymentChanged(null, paid(LocalDate.of(2024, 1, 31), 10));
+        index.paymentChanged(null, paid(LocalDate.of(2024, 2, 1), 20));
+        index.paymentChanged(null, paid(LocalDate.of(2024, 3, 15), 40));
+
+        Map<String, Object> series = index.getRevenueSeries(LocalDate.of(2024, 1, 15), LocalDate.of(2024, 3, 10), "month");
+        List<?> buckets = (List<?>) series.get("buckets");
+        assertEquals(3, buckets.size());
+        assertEquals(30.0, (double) series.get("total"), 0.001);
+        assertEquals(LocalDate.of(2024, 3, 10), ((Map<?, ?>) buckets.get(2)).get("end"));
+    }
+
+    @Test
+    void tooManyBucketsIsRejected() {
+        assertThrows(IllegalArgumentException.class, () -> RevenueIndex.checkBucketCount(
+                LocalDate.of(1900, 1, 1), LocalDate.of(2100, 1, 1), "day"));
+    }
+}
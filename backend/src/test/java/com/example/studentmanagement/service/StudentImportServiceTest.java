@@ -0,0 +1,99 @@
+package com.example.studentmanagement.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class StudentImportServiceTest {
+
+    private static BufferedReader reader(String csv) {
+        return new BufferedReader(new StringReader(csv));
+    }
+
+    @Test
+    void plainRecords() throws IOException {
+        BufferedReader in = reader("name,email\nAsha,asha@example.com\n");
+        assertEquals(List.of("name", "email"), StudentImportService.readCsvRecord(in));
+        assertEquals(List.of("Asha", "asha@example.com"), StudentImportService.readCsvRecord(in));
+        assertNull(StudentImportService.readCsvRecord(in));
+    }
+
+    @Test
+    void lastRecordWithoutNewline() throws IOException {
+        BufferedReader in = reader("a,b\nc,d");
+        StudentImportService.readCsvRecord(in);
+        assertEquals(List.of("c", "d"), StudentImportService.readCsvRecord(in));
+        assertNull(StudentImportService.readCsvRecord(in));
+    }
+
+    @Test
+    void crlfLineEndings() throws IOException {
+        BufferedReader in = reader("a,b\r\nc,d\r\n");
+        assertEquals(List.of("a", "b"), StudentImportService.readCsvRecord(in));
+        assertEquals(List.of("c", "d"), StudentImportService.readCsvRecord(in));
+        assertNull(StudentImportService.readCsvRecord(in));
+    }
+
+    @Test
+    void emptyFields() throws IOException {
+        assertEquals(List.of("", "x", ""), StudentImportService.readCsvRecord(reader(",x,\n")));
+        assertEquals(List.of(""), StudentImportService.readCsvRecord(reader("\n")));
+    }
+
+    @Test
+    void quotedFieldWithCommaAndEscapedQuotes() throws IOException {
+        BufferedReader in = reader("\"Sharma, Ravi\",\"He said \"\"hi\"\"\",\"\"\n");
+        assertEquals(List.of("Sharma, Ravi", "He said \"hi\"", ""), StudentImportService.readCsvRecord(in));
+        assertNull(StudentImportService.readCsvRecord(in));
+    }
+
+    @Test
+    void quotedFieldSpanningLines() throws IOException {
+        BufferedReader in = reader("1,\"12 Main Road\r\nFlat 4\",x\r\n2,y,z\r\n");
+        assertEquals(List.of("1", "12 Main Road\r\nFlat 4", "x"), StudentImportService.readCsvRecord(in));
+        assertEquals(List.of("2", "y", "z"), StudentImportService.readCsvRecord(in));
+    }
+
+    @Test
+    void quotedFieldAtEndOfInput() throws IOException {
+        BufferedReader in = reader("a,\"b\"");
+        assertEquals(List.of("a", "b"), StudentImportService.readCsvRecord(in));
+        assertNull(StudentImportService.readCsvRecord(in));
+    }
+
+    @Test
+    void quoteInsideUnquotedFieldIsLiteral() throws IOException {
+        assertEquals(List.of("5'6\"", "x"), StudentImportService.readCsvRecord(reader("5'6\",x\n")));
+    }
+
+    @Test
+    void byteOrderMarkIsSkipped() throws IOException {
+        BufferedReader in = reader("\uFEFFname,email\n");
+        StudentImportService.skipByteOrderMark(in);
+        assertEquals(List.of("name", "email"), StudentImportService.readCsvRecord(in));
+    }
+
+    @Test
+    void inputWithoutByteOrderMarkIsUntouched() throws IOException {
+        BufferedReader in = reader("name\n");
+        StudentImportService.skipByteOrderMark(in);
+        assertEquals(List.of("name"), StudentImportService.readCsvRecord(in));
+
+        BufferedReader empty = reader("");
+        StudentImportService.skipByteOrderMark(empty);
+        assertNull(StudentImportService.readCsvRecord(empty));
+    }
+
+    @Test
+    void unterminatedQuoteIsRejected() {
+        assertThrows(IllegalArgumentException.class,
+                () -> StudentImportService.readCsvRecord(reader("a,\"never closed\nb,c\n")));
+    }
+}
@@ -0,0 +1,89 @@
+package com.example.studentmanagement.service;
+
+import com.example.studentmanagement.service.StudentSearchIndex.IdList;
+import org.junit.jupiter.api.Test;
+
+import java.util.Locale;
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeSet;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class StudentSearchIndexTest {
+
+    @Test
+    void idListStaysSortedWithoutDuplicates() {
+        IdList list = new IdList();
+        for (int id : new int[] {50, 10, 30, 10, 70, 20, 60, 40, 50}) {
+            list.add(id);
+        }
+        assertArrayEquals(new int[] {10, 20, 30, 40, 50, 60, 70}, list.toArray());
+        assertTrue(list.contains(40));
+        assertFalse(list.contains(45));
+    }
+
+    @Test
+    void idListRemove() {
+        IdList list = new IdList();
+        list.add(1);
+        list.add(2);
+        list.add(3);
+
+        assertTrue(list.remove(1));
+        assertFalse(list.remove(1));
+        assertTrue(list.remove(3));
+        assertArrayEquals(new int[] {2}, list.toArray());
+        assertTrue(list.remove(2));
+        assertArrayEquals(new int[0], list.toArray());
+        assertFalse(list.contains(2));
+    }
+
+    @Test
+    void idListMatchesSortedSetUnderRandomEdits() {
+        IdList list = new IdList();
+        TreeSet<Integer> expected = new TreeSet<>();
+        Random random = new Random(7);
+        for (int i = 0; i < 10_000; i++) {
+            int id = random.nextInt(2000);
+            if (random.nextInt(3) == 0) {
+                assertEquals(expected.remove(id), list.remove(id));
+            } else {
+                list.add(id);
+                expected.add(id);
+            }
+        }
+        assertArrayEquals(expected.stream().mapToInt(Integer::intValue).toArray(), list.toArray());
+    }
+
+    @Test
+    void keysIncludeShortWordPrefixes() {
+        Set<String> keys = StudentSearchIndex.keys('n', "ravi kumar");
+
+        assertTrue(keys.containsAll(Set.of("nr", "nra", "nk", "nku", "nrav", "nkum", "ni k")));
+        assertFalse(keys.contains("na"));
+        assertFalse(keys.contains("nav"));
+        assertFalse(keys.contains("nu"));
+    }
+
+    @Test
+    void keysForShortValues() {
+        assertEquals(Set.of("ea"), StudentSearchIndex.keys('e', "a"));
+        assertEquals(Set.of("ea", "eab"), StudentSearchIndex.keys('e', "ab"));
+        assertEquals(Set.of(), StudentSearchIndex.keys('e', ""));
+    }
+
+    @Test
+    void lowerCasingIgnoresTheDefaultLocale() {
+        Locale original = Locale.getDefault();
+        try {
+            Locale.setDefault(Locale.forLanguageTag("tr-TR"));
+            assertEquals("iqbal ali", StudentSearchIndex.lower("IQBAL ALI"));
+        } finally {
+            Locale.setDefault(original);
+        }
+    }
+}
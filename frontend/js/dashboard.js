@@ -112,11 +112,14 @@ async function initializeDashboard() {
     showLoadingState();
     
     try {
-        await Promise.all([
-            loadKPIData(),
-            loadChartData(),
-            loadRecentActivity()
-        ]);
+        // One round trip for every section; fall back to the individual endpoints
+        if (!await loadDashboardSummary()) {
+            await Promise.all([
+                loadKPIData(),
+                loadChartData(),
+                loadRecentActivity()
+            ]);
+        }
         
         updateLastUpdatedTime();
         hideLoadingState();
@@ -158,8 +161,109 @@ function setupEventListeners() {
         });
     }
     
-    // Auto-refresh every 30 seconds
-    setInterval(refreshDashboard, 30000);
+    // Live updates pushed by the server; falls back to polling if unavailable
+    connectDashboardStream();
+}
+
+// Subscribe to server-sent dashboard updates
+let dashboardStream = null;
+let dashboardPollTimer = null;
+
+function connectDashboardStream() {
+    if (!window.EventSource) {
+        startDashboardPolling();
+        return;
+    }
+    dashboardStream = new EventSource(`${API_BASE}/api/dashboard/stream`);
+    dashboardStream.addEventListener('dashboard', (event) => {
+        stopDashboardPolling();
+        applyDashboardUpdate(JSON.parse(event.data));
+    });
+    dashboardStream.onerror = () => {
+        // EventSource retries on its own; poll in the meantime so the page stays fresh
+        startDashboardPolling();
+    };
+}
+
+function startDashboardPolling() {
+    if (!dashboardPollTimer) {
+        dashboardPollTimer = setInterval(refreshDashboard, 30000);
+    }
+}
+
+function stopDashboardPolling() {
+    if (dashboardPollTimer) {
+        clearInterval(dashboardPollTimer);
+        dashboardPollTimer = null;
+    }
+}
+
+// Apply the sections contained in a pushed update
+function applyDashboardUpdate(update) {
+    const changed = update.changed || [];
+    if (update.kpis) {
+        updateKPIWidgets(update.kpis);
+        dashboardData.kpis = update.kpis;
+    }
+    if (update.recentActivity) {
+        const activities = update.recentActivity.activities || [];
+        updateRecentActivity(activities);
+        dashboardData.recentActivity = activities;
+    }
+    if (changed.includes('students')) {
+        // The pushed trend covers the last 30 days; other views are reloaded
+        const enrollmentPeriod = document.getElementById('enrollmentPeriod');
+        if (enrollmentPeriod && enrollmentPeriod.value === 'daily-30' && update.enrollmentTrend) {
+            updateEnrollmentChart(update.enrollmentTrend);
+        } else if (enrollmentChartInstance) {
+            const val = enrollmentPeriod ? enrollmentPeriod.value : 'monthly';
+            loadEnrollmentChart(val === 'daily-7' ? 7 : val === 'daily-30' ? 30 : 'monthly');
+        }
+    }
+    if (changed.includes('payments')) {
+        const revenuePeriod = document.getElementById('revenuePeriod');
+        const period = revenuePeriod ? revenuePeriod.value : 'monthly';
+        if (period === 'monthly' && update.revenueOverview) {
+            updateRevenueChart(update.revenueOverview);
+        } else if (revenueChartInstance) {
+            loadRevenueChart(period);
+        }
+    }
+    updateLastUpdatedTime();
+}
+
+// Load all dashboard sections from the summary endpoint; false if it failed
+async function loadDashboardSummary() {
+    const enrollmentPeriod = document.getElementById('enrollmentPeriod');
+    const revenuePeriod = document.getElementById('revenuePeriod');
+    const enrollmentValue = enrollmentPeriod ? enrollmentPeriod.value : 'monthly';
+    const enrollment = enrollmentValue === 'daily-7' ? '7' : enrollmentValue === 'daily-30' ? '30' : 'monthly';
+    const revenue = revenuePeriod ? revenuePeriod.value : 'monthly';
+    try {
+        const response = await fetch(`${API_BASE}/api/dashboard/summary?enrollmentPeriod=${enrollment}&revenuePeriod=${revenue}&activityLimit=10`);
+        if (!response.ok) {
+            throw new Error('Failed to fetch dashboard summary');
+        }
+        const summary = await response.json();
+
+        updateKPIWidgets(summary.kpis);
+        dashboardData.kpis = summary.kpis;
+
+        const trend = summary.enrollmentTrend;
+        if (enrollment === 'monthly' && trend.keys) {
+            trend.labels = trend.keys.map(k => monthLabelFromKey(k));
+        }
+        updateEnrollmentChart(trend);
+        updateRevenueChart(summary.revenueOverview);
+
+        const activities = summary.recentActivity.activities || [];
+        updateRecentActivity(activities);
+        dashboardData.recentActivity = activities;
+        return true;
+    } catch (error) {
+        console.error('Error loading dashboard summary:', error);
+        return false;
+    }
 }
 
 // Load KPI data
@@ -129,27 +129,20 @@ if (!localStorage.getItem('isLoggedIn')) {
     throw new Error('Not logged in');
 }
 
-// Auto-cleanup missing document references on page load (run once)
+// Start the background document integrity scan on page load (run once)
 if (!localStorage.getItem('documentsCleanedUp')) {
     setTimeout(async () => {
         try {
-            const response = await fetch(`${API_BASE}/api/students/cleanup-missing-documents`, {
+            const response = await fetch(`${API_BASE}/api/students/document-scan`, {
                 method: 'POST'
             });
             if (response.ok) {
-                const result = await response.text();
-                console.log('Document cleanup result:', result);
+                const scan = await response.json();
+                console.log('Document integrity scan', scan.id, scan.status);
                 localStorage.setItem('documentsCleanedUp', 'true');
-                // Refresh student list if cleanup found issues
-                if (result.includes('Cleaned up') && !result.includes('Cleaned up 0')) {
-                    console.log('Refreshing student list after cleanup...');
-                    if (typeof fetchStudents === 'function') {
-                        fetchStudents();
-                    }
-                }
             }
         } catch (error) {
-            console.log('Document cleanup error:', error);
+            console.log('Document scan error:', error);
         }
     }, 2000); // Run after 2 seconds to let the page load
 }
@@ -388,7 +381,9 @@ function renderStudentRow(student, index) {
             <td>
                 <div class="student-info">
                     <div class="student-avatar">
-                        <i class="fas fa-user"></i>
+                        ${student.tenthClassDocumentThumbnail ?
+            `<img src="${API_BASE}/api/students/document/${student.tenthClassDocumentThumbnail}" alt="10th class document" loading="lazy">` :
+            '<i class="fas fa-user"></i>'}
                     </div>
                     <div class="student-details">
                         <span class="student-name clickable" data-id="${student.id}">${toUpperCase(student.name) || 'N/A'}</span>
@@ -1061,32 +1056,7 @@ if (paymentForm) {
         };
 
         try {
-            // First, get the current student data
-            const studentResponse = await fetch(`${API_URL}/${studentId}`);
-            if (!studentResponse.ok) {
-                throw new Error('Failed to fetch student data');
-            }
-            const student = await studentResponse.json();
-
-            // Update student's payment information
-            const updatedStudent = {
-                ...student,
-                paidAmount: (student.paidAmount || 0) + paymentAmount,
-                remainingAmount: (student.totalCourseFee || 0) - ((student.paidAmount || 0) + paymentAmount)
-            };
-
-            // Update the student record
-            const updateResponse = await fetch(`${API_URL}/${studentId}`, {
-                method: 'PUT',
-                headers: { 'Content-Type': 'application/json' },
-                body: JSON.stringify(updatedStudent)
-            });
-
-            if (!updateResponse.ok) {
-                throw new Error('Failed to update student payment information');
-            }
-
-            // Then add the payment record
+            // The server adds the payment to the student's paid amount
             const paymentResponse = await fetch(PAYMENT_API_URL, {
                 method: 'POST',
                 headers: { 'Content-Type': 'application/json' },
@@ -1105,7 +1075,7 @@ if (paymentForm) {
                 fetchStudents(); // Refresh the student list to show updated payment info
                 generateReceipt(payment);
             } else {
-                throw new Error('Failed to create payment record');
+                throw new Error(paymentResponse.status === 409 ? await paymentResponse.text() : 'Failed to create payment record');
             }
         } catch (error) {
             showNotification(error.message || 'Error adding payment', true);
@@ -2524,6 +2494,10 @@ async function showStudentProfile(studentId) {
                     <div class="detail-content">
                         <div class="detail-label">Documents</div>
                         <div class="detail-value">
+                            ${student.tenthClassDocumentThumbnail ?
+            `<a href="${API_BASE}/api/students/document/${student.tenthClassDocumentPreview}" target="_blank" class="document-thumbnail">
+                                    <img src="${API_BASE}/api/students/document/${student.tenthClassDocumentThumbnail}" alt="10th class document" loading="lazy">
+                                </a>` : ''}
                             ${student.tenthClassDocument ?
             `<a href="${API_BASE}/api/students/document/${student.tenthClassDocument}" target="_blank" class="document-link">
                                     <i class="fas fa-download"></i> 10th Class Document